@@ -0,0 +1,47 @@
+package de.hpi.ddm.benchmarks;
+
+import java.util.Random;
+
+import de.hpi.ddm.structures.HashEngine;
+
+// Deterministic inputs that resemble data/passwords.csv, so that runs are comparable
+final class Datasets {
+
+	static final long SEED = 42;
+	static final String ALPHABET = "ABCDEFGHIJK";
+	static final int PASSWORD_LENGTH = 10;
+
+	// The first record of data/passwords.csv
+	static final String[] LINE = ("1;Sophia;ABCDEFGHIJK;10;c4712866799881ac48ca55bf78a9540b1883ae033b52109169eb784969be09d5;"
+			+ "1582824a01c4b842e207a51e3cfc47212885e58eb147e33ea29ba212e611904d;"
+			+ "e91aca467f5a2a280213a46aa11842d92577322b5c9899c8e6ffb3dc4b1d80a1;"
+			+ "52be0093f91b90872aa54533b8ee9b38f794999bae9371834eca23ce51139b99;"
+			+ "8052d9420a20dfc6197d514263f7f0d67f1296569f3c0708fa9030b08a4a908a;"
+			+ "ca70f765d8c1b9b7a2162b19ea8e2b410166840f67ee276d297d0ab3bc05f425;"
+			+ "570d3ada41deeb943fde8f397076eaef39862f12b0496eadee5b090face72eb5;"
+			+ "f224061bd0359a5ca697570df620c34ecda0454fde04f511e4c8608b1f19acb8;"
+			+ "01d8adcfdb790125e585e7ed9b77741cd09596dd7c15dcfdc75382a31a4f74ad;"
+			+ "4b47ac115f6a91120d444638be98a97d009b9c13fa820d66796d2dad30d18975").split(";");
+
+	private Datasets() {
+	}
+
+	static byte[] alphabet(int numSymbols) {
+		return HashEngine.toBytes(ALPHABET.substring(0, numSymbols));
+	}
+
+	static byte[][] candidates(int count, int length) {
+		Random random = new Random(SEED);
+		byte[][] candidates = new byte[count][length];
+		for (byte[] candidate : candidates)
+			for (int i = 0; i < length; i++)
+				candidate[i] = (byte) ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+		return candidates;
+	}
+
+	static String hexDigest(Random random) {
+		byte[] digest = new byte[HashEngine.DIGEST_LENGTH];
+		random.nextBytes(digest);
+		return HashEngine.toHex(digest);
+	}
+}
@@ -0,0 +1,55 @@
+package de.hpi.ddm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.hpi.ddm.structures.BatchHashEngine;
+import de.hpi.ddm.structures.HashEngine;
+
+/**
+ * Digest throughput in hashes per second and thread for candidates of the dataset's password length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DigestBenchmark {
+
+	private byte[][] candidates;
+	private long[] digests;
+
+	@Setup
+	public void setup() {
+		this.candidates = Datasets.candidates(BatchHashEngine.BATCH_SIZE, Datasets.PASSWORD_LENGTH);
+		this.digests = new long[BatchHashEngine.BATCH_SIZE * BatchHashEngine.WORDS_PER_DIGEST];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BatchHashEngine.BATCH_SIZE)
+	public void messageDigest(Blackhole blackhole) {
+		HashEngine engine = HashEngine.get();
+		for (byte[] candidate : this.candidates)
+			blackhole.consume(engine.hash(candidate, candidate.length));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BatchHashEngine.BATCH_SIZE)
+	public long[] batch() {
+		BatchHashEngine.get().hashBatch(this.candidates, this.digests);
+		return this.digests;
+	}
+}
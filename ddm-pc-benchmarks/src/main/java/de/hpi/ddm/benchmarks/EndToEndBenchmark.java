@@ -0,0 +1,61 @@
+package de.hpi.ddm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import akka.actor.ActorSystem;
+import de.hpi.ddm.MasterSystem;
+import de.hpi.ddm.configuration.Configuration;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.configuration.DatasetDescriptorSingleton;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Wall-clock time in seconds of a complete single-node run of the master system, from reading the dataset to the
+ * termination of the ActorSystem. Run the benchmark jar from the repository root or set the datasetPath parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Dakka.loglevel=WARNING" })
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class EndToEndBenchmark {
+
+	@Param({ "ddm-pc/data/" })
+	private String datasetPath;
+
+	@Param({ "passwords" })
+	private String datasetName;
+
+	@Param({ "4" })
+	private int numWorkers;
+
+	@Setup
+	public void setup() {
+		Configuration c = ConfigurationSingleton.get();
+		c.setHost("127.0.0.1");
+		c.setNumWorkers(this.numWorkers);
+		
+		DatasetDescriptorSingleton.get().setDatasetPath(this.datasetPath);
+		DatasetDescriptorSingleton.get().setDatasetName(this.datasetName);
+	}
+
+	@Benchmark
+	public void crack() throws Exception {
+		ActorSystem system = MasterSystem.start();
+		Await.ready(system.whenTerminated(), Duration.Inf());
+	}
+}
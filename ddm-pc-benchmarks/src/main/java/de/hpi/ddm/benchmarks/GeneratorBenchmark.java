@@ -0,0 +1,67 @@
+package de.hpi.ddm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hpi.ddm.structures.CombinationGenerator;
+import de.hpi.ddm.structures.PermutationGenerator;
+
+/**
+ * Candidate generation rates in permutations or combinations per second, without hashing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GeneratorBenchmark {
+
+	private static final int NUM_SYMBOLS = 8;
+	private static final int PERMUTATIONS = 40320;		// 8!
+	private static final int NUM_LETTERS = 4;
+	private static final int COMBINATIONS = 65536;		// 4^8
+
+	private byte[] symbols;
+	private CombinationGenerator combinations;
+
+	@Setup
+	public void setup() {
+		this.symbols = Datasets.alphabet(NUM_SYMBOLS);
+		this.combinations = new CombinationGenerator(Datasets.alphabet(NUM_LETTERS), NUM_SYMBOLS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PERMUTATIONS)
+	public int permutations() {
+		PermutationGenerator permutations = new PermutationGenerator(this.symbols);
+		int checksum = 0;
+		do {
+			checksum += this.symbols[0];
+		} while (permutations.next());
+		return checksum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMBINATIONS)
+	public int combinations() {
+		this.combinations.seek(0);
+		byte[] candidate = this.combinations.current();
+		int checksum = 0;
+		do {
+			checksum += candidate[0];
+		} while (this.combinations.next());
+		return checksum;
+	}
+}
@@ -0,0 +1,87 @@
+package de.hpi.ddm.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hpi.ddm.structures.BatchHashEngine;
+import de.hpi.ddm.structures.BloomFilter;
+import de.hpi.ddm.structures.DigestIndex;
+import de.hpi.ddm.structures.HashEngine;
+
+/**
+ * Latency of one hint probe in nanoseconds; half of the probes hit, which is far more than during cracking, so
+ * that both paths are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HintProbeBenchmark {
+
+	private static final int NUM_PROBES = 1024;
+
+	@Param({ "900", "900000" })		// The hints of 100 and of 100000 users
+	private int numHints;
+
+	private DigestIndex hints;
+	private BloomFilter filter;
+	private byte[][] probes;
+	private long[] probeWords;
+	private int next;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(Datasets.SEED);
+		this.hints = new DigestIndex(this.numHints);
+		this.filter = BloomFilter.forDigests(this.numHints);
+		this.probes = new byte[NUM_PROBES][HashEngine.DIGEST_LENGTH];
+		this.probeWords = new long[NUM_PROBES * BatchHashEngine.WORDS_PER_DIGEST];
+		
+		for (int i = 0; i < this.numHints; i++) {
+			byte[] digest = new byte[HashEngine.DIGEST_LENGTH];
+			random.nextBytes(digest);
+			this.hints.add(digest);
+			this.filter.addDigest(digest);
+			if (i < NUM_PROBES / 2)
+				this.probes[2 * i] = digest;
+		}
+		for (int i = 1; i < NUM_PROBES; i += 2)
+			random.nextBytes(this.probes[i]);
+		for (int i = 0; i < NUM_PROBES; i++)
+			System.arraycopy(BatchHashEngine.toWords(this.probes[i]), 0, this.probeWords, i * BatchHashEngine.WORDS_PER_DIGEST, BatchHashEngine.WORDS_PER_DIGEST);
+	}
+
+	@Benchmark
+	public boolean probeBytes() {
+		this.next = (this.next + 1) & (NUM_PROBES - 1);
+		return this.hints.contains(this.probes[this.next]);
+	}
+
+	@Benchmark
+	public boolean probeWords() {
+		this.next = (this.next + 1) & (NUM_PROBES - 1);
+		return this.hints.contains(this.probeWords, this.next * BatchHashEngine.WORDS_PER_DIGEST);
+	}
+
+	// Only the hits and the few false positives probe the index, which is where the Bloom filter saves time
+	@Benchmark
+	public boolean probeFiltered() {
+		this.next = (this.next + 1) & (NUM_PROBES - 1);
+		int offset = this.next * BatchHashEngine.WORDS_PER_DIGEST;
+		return this.filter.mightContainDigest(this.probeWords, offset) && this.hints.contains(this.probeWords, offset);
+	}
+}
@@ -0,0 +1,91 @@
+package de.hpi.ddm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hpi.ddm.actors.Worker;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.KryoPoolSingleton;
+
+/**
+ * Kryo serialization and deserialization time in nanoseconds of the largest recurring messages; the secondary
+ * result "bytes" reports each message's serialized size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Size {
+		public long bytes;
+	}
+
+	private Worker.TaskMessage taskMessage;
+	private Worker.HintsHashesMessage hintsHashesMessage;
+	private byte[] serializedTaskMessage;
+	private byte[] serializedHintsHashesMessage;
+
+	@Setup
+	public void setup() {
+		this.taskMessage = new Worker.TaskMessage(Integer.parseInt(Datasets.LINE[0]), HashEngine.fromHex(Datasets.LINE[4]),
+				Integer.parseInt(Datasets.LINE[3]), HashEngine.toBytes(Datasets.ALPHABET), 0, ConfigurationSingleton.get().getPasswordUnitSize());
+		
+		// One chunk of a delta as the master sends it: bufferSize digests of which some are already cracked
+		Random random = new Random(Datasets.SEED);
+		int chunkSize = ConfigurationSingleton.get().getBufferSize();
+		byte[] digests = new byte[chunkSize * HashEngine.DIGEST_LENGTH];
+		List<String> plaintexts = new ArrayList<>(chunkSize);
+		for (int i = 0; i < chunkSize; i++) {
+			System.arraycopy(HashEngine.fromHex(Datasets.hexDigest(random)), 0, digests, i * HashEngine.DIGEST_LENGTH, HashEngine.DIGEST_LENGTH);
+			plaintexts.add(i % 5 == 0 ? Datasets.ALPHABET.substring(1) : null);
+		}
+		this.hintsHashesMessage = new Worker.HintsHashesMessage(0, chunkSize, digests, plaintexts);
+		
+		this.serializedTaskMessage = KryoPoolSingleton.get().toBytesWithClass(this.taskMessage);
+		this.serializedHintsHashesMessage = KryoPoolSingleton.get().toBytesWithClass(this.hintsHashesMessage);
+	}
+
+	@Benchmark
+	public byte[] serializeTaskMessage(Size size) {
+		byte[] bytes = KryoPoolSingleton.get().toBytesWithClass(this.taskMessage);
+		size.bytes = bytes.length;
+		return bytes;
+	}
+
+	@Benchmark
+	public Object deserializeTaskMessage() {
+		return KryoPoolSingleton.get().fromBytes(this.serializedTaskMessage);
+	}
+
+	@Benchmark
+	public byte[] serializeHintsHashesMessage(Size size) {
+		byte[] bytes = KryoPoolSingleton.get().toBytesWithClass(this.hintsHashesMessage);
+		size.bytes = bytes.length;
+		return bytes;
+	}
+
+	@Benchmark
+	public Object deserializeHintsHashesMessage() {
+		return KryoPoolSingleton.get().fromBytes(this.serializedHintsHashesMessage);
+	}
+}
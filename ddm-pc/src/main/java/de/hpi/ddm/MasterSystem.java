@@ -1,5 +1,8 @@
 package de.hpi.ddm;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 
@@ -10,12 +13,16 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.cluster.Cluster;
 import de.hpi.ddm.actors.Collector;
+import de.hpi.ddm.actors.Journaler;
 import de.hpi.ddm.actors.Master;
 import de.hpi.ddm.actors.Reader;
 import de.hpi.ddm.actors.Reaper;
+import de.hpi.ddm.actors.StreamMaster;
 import de.hpi.ddm.actors.Worker;
+import de.hpi.ddm.actors.listeners.MetricsListener;
 import de.hpi.ddm.configuration.Configuration;
 import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.Journal;
 import scala.concurrent.Await;
 import scala.concurrent.duration.Duration;
 
@@ -23,28 +30,46 @@ public class MasterSystem {
 	
 	public static final String MASTER_ROLE = "master";
 
-	public static void start() {
+	public static ActorSystem start() throws IOException {
 		final Configuration c = ConfigurationSingleton.get();
 		
 		final Config config = ConfigFactory.parseString(
 				"akka.remote.artery.canonical.hostname = \"" + c.getHost() + "\"\n" +
 				"akka.remote.artery.canonical.port = " + c.getPort() + "\n" +
 				"akka.cluster.roles = [" + MASTER_ROLE + "]\n" +
-				"akka.cluster.seed-nodes = [\"akka://" + c.getActorSystemName() + "@" + c.getHost() + ":" + c.getPort() + "\"]")
+				"akka.cluster.seed-nodes = [\"akka://" + c.getActorSystemName() + "@" + c.getHost() + ":" + c.getPort() + "\"]\n" +
+				Worker.CRACKING_DISPATCHER + ".fork-join-executor.parallelism-min = " + c.getNumComputeThreads() + "\n" +
+				Worker.CRACKING_DISPATCHER + ".fork-join-executor.parallelism-max = " + c.getNumComputeThreads())
 			.withFallback(ConfigFactory.load("application"));
 		
 		final ActorSystem system = ActorSystem.create(c.getActorSystemName(), config);
 
 	//	ActorRef clusterListener = system.actorOf(ClusterListener.props(), ClusterListener.DEFAULT_NAME);
-	//	ActorRef metricsListener = system.actorOf(MetricsListener.props(), MetricsListener.DEFAULT_NAME);
+		if (c.isMetricsListener())
+			system.actorOf(MetricsListener.props(), MetricsListener.DEFAULT_NAME);
 		
 		ActorRef reaper = system.actorOf(Reaper.props(), Reaper.DEFAULT_NAME);
 		
-		ActorRef reader = system.actorOf(Reader.props(), Reader.DEFAULT_NAME);
-		
 		ActorRef collector = system.actorOf(Collector.props(), Collector.DEFAULT_NAME);
 		
-		ActorRef master = system.actorOf(Master.props(reader, collector), Master.DEFAULT_NAME);
+		// Recover the results of a previous run of the job before the master starts, so that it skips the finished work
+		Journal.Checkpoint checkpoint = new Journal.Checkpoint();
+		Journal journal = null;
+		if (!c.getJournalFile().isEmpty()) {
+			Path path = Paths.get(c.getJournalFile());
+			checkpoint = Journal.replay(path);
+			journal = new Journal(path);
+			system.log().info("Replayed {} hints and {} passwords from the journal {}", checkpoint.getHints().size(), checkpoint.getPasswords().size(), path);
+		}
+		ActorRef journaler = system.actorOf(Journaler.props(journal), Journaler.DEFAULT_NAME);
+		
+		if (c.isStreamEngine()) {
+			ActorRef master = system.actorOf(StreamMaster.props(collector, journaler, checkpoint), Master.DEFAULT_NAME);
+		} else {
+			ActorRef reader = system.actorOf(Reader.props(), Reader.DEFAULT_NAME);
+			
+			ActorRef master = system.actorOf(Master.props(reader, collector, journaler, checkpoint), Master.DEFAULT_NAME);
+		}
 		
 		Cluster.get(system).registerOnMemberUp(new Runnable() {
 			@Override
@@ -83,5 +108,7 @@ public class MasterSystem {
 			
 			system.actorSelection("/user/" + Master.DEFAULT_NAME).tell(new Master.StartMessage(), ActorRef.noSender());
 		}
+		
+		return system;
 	}
 }
@@ -26,7 +26,9 @@ public class SlaveSystem {
 				"akka.remote.artery.canonical.hostname = \"" + c.getHost() + "\"\n" +
 				"akka.remote.artery.canonical.port = " + c.getPort() + "\n" +
 				"akka.cluster.roles = [" + SLAVE_ROLE + "]\n" +
-				"akka.cluster.seed-nodes = [\"akka://" + c.getActorSystemName() + "@" + c.getMasterHost() + ":" + c.getMasterPort() + "\"]")
+				"akka.cluster.seed-nodes = [\"akka://" + c.getActorSystemName() + "@" + c.getMasterHost() + ":" + c.getMasterPort() + "\"]\n" +
+				Worker.CRACKING_DISPATCHER + ".fork-join-executor.parallelism-min = " + c.getNumComputeThreads() + "\n" +
+				Worker.CRACKING_DISPATCHER + ".fork-join-executor.parallelism-max = " + c.getNumComputeThreads())
 			.withFallback(ConfigFactory.load("application"));
 		
 		final ActorSystem system = ActorSystem.create(c.getActorSystemName(), config);
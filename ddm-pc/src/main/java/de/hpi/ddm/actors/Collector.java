@@ -1,21 +1,37 @@
 package de.hpi.ddm.actors;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
 
 import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
+import de.hpi.ddm.configuration.Configuration;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.configuration.DatasetDescriptorSingleton;
+import it.unimi.dsi.fastutil.ints.Int2ObjectRBTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import scala.concurrent.duration.FiniteDuration;
 
 public class Collector extends AbstractLoggingActor {
 
 	////////////////////////
 	// Actor Construction //
 	////////////////////////
-	
+
 	public static final String DEFAULT_NAME = "collector";
 
 	public static Props props() {
@@ -29,27 +45,69 @@ public class Collector extends AbstractLoggingActor {
 	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class CollectMessage implements Serializable {
 		private static final long serialVersionUID = -102767440935270949L;
+		private int id;				// The ID of the user whose password this is
 		private String result;
 	}
 
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class ExpectMessage implements Serializable {
+		private static final long serialVersionUID = 6013923581932316474L;
+		private int[] ids;			// The IDs of further users whose results will be collected
+		private boolean complete;	// True if no further IDs follow
+	}
+
+	@Data
+	public static class FlushMessage implements Serializable {
+		private static final long serialVersionUID = 4215806311957212006L;
+	}
+
 	@Data
 	public static class PrintMessage implements Serializable {
 		private static final long serialVersionUID = -267778464637901383L;
 	}
-	
+
 	/////////////////
 	// Actor State //
 	/////////////////
-	
-	private List<String> results = new ArrayList<>();
-	
+
+	private boolean ordered;					// Write the results in the order of their user IDs instead of in their arrival order
+	private FileChannel channel;				// The output file or null if results are only logged
+	private Writer writer;
+	private Cancellable flushing;
+
+	private final IntSortedSet expected = new IntRBTreeSet();						// The announced IDs whose results have not been collected yet
+	private boolean complete = false;
+	private final Int2ObjectSortedMap<String> pending = new Int2ObjectRBTreeMap<>();	// The collected results that wait for results of smaller IDs
+
+	private long firstResultTime;
+	private long numCollected = 0;
+	private long numWritten = 0;
+	private long numReported = 0;
+
 	/////////////////////
 	// Actor Lifecycle //
 	/////////////////////
 
 	@Override
-	public void preStart() {
+	public void preStart() throws IOException {
 		Reaper.watchWithDefaultReaper(this);
+
+		Configuration c = ConfigurationSingleton.get();
+		this.ordered = c.isOutputOrdered();
+		if (!c.getOutputFile().isEmpty()) {
+			this.channel = FileChannel.open(Paths.get(c.getOutputFile()), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			this.writer = new BufferedWriter(Channels.newWriter(this.channel, DatasetDescriptorSingleton.get().getCharset().newEncoder(), -1));
+		}
+
+		FiniteDuration interval = FiniteDuration.create(c.getOutputFlushInterval(), TimeUnit.MILLISECONDS);
+		this.flushing = this.context().system().scheduler().schedule(interval, interval, this.self(), new FlushMessage(), this.context().dispatcher(), ActorRef.noSender());
+	}
+
+	@Override
+	public void postStop() throws IOException {
+		this.flushing.cancel();
+		if (this.writer != null)
+			this.writer.close();
 	}
 
 	////////////////////
@@ -60,16 +118,79 @@ public class Collector extends AbstractLoggingActor {
 	public Receive createReceive() {
 		return receiveBuilder()
 				.match(CollectMessage.class, this::handle)
+				.match(ExpectMessage.class, this::handle)
+				.match(FlushMessage.class, this::handle)
 				.match(PrintMessage.class, this::handle)
 				.matchAny(object -> this.log().info("Received unknown message: \"{}\"", object.toString()))
 				.build();
 	}
 
-	protected void handle(CollectMessage message) {
-		this.results.add(message.getResult());
+	protected void handle(CollectMessage message) throws IOException {
+		if (this.numCollected++ == 0)
+			this.firstResultTime = System.currentTimeMillis();
+
+		if (!this.ordered) {
+			this.write(message.getId(), message.getResult());
+			return;
+		}
+		this.expected.remove(message.getId());
+		this.pending.put(message.getId(), message.getResult());
+		this.drain();
+	}
+
+	protected void handle(ExpectMessage message) throws IOException {
+		if (!this.ordered)
+			return;
+		for (int id : message.getIds())
+			this.expected.add(id);
+		this.complete = message.isComplete();
+		this.drain();
+	}
+
+	protected void drain() throws IOException {
+		// Users of later batches may have smaller IDs, so results are held back until all IDs are known; all results
+		// with IDs below the smallest ID that still lacks its result can then be written
+		if (!this.complete)
+			return;
+		while (!this.pending.isEmpty() && (this.expected.isEmpty() || this.pending.firstIntKey() < this.expected.firstInt())) {
+			int id = this.pending.firstIntKey();
+			this.write(id, this.pending.remove(id));
+		}
 	}
-	
-	protected void handle(PrintMessage message) {
-		this.results.forEach(result -> this.log().info("{}", result));
+
+	protected void write(int id, String result) throws IOException {
+		this.log().info("{}", result);
+		if (this.writer != null) {
+			this.writer.write(id + String.valueOf(DatasetDescriptorSingleton.get().getValueSeparator()) + result);
+			this.writer.write('\n');
+		}
+		this.numWritten++;
+	}
+
+	protected void handle(FlushMessage message) throws IOException {
+		// Make the results written so far durable, so that they are usable while a long job is still running
+		if (this.numCollected == this.numReported)
+			return;
+		this.flush();
+
+		long elapsed = Math.max(1, System.currentTimeMillis() - this.firstResultTime);
+		this.log().info("Collected {} results ({} per second), wrote {}", this.numCollected, this.numCollected * 1000 / elapsed, this.numWritten);
+		this.numReported = this.numCollected;
+	}
+
+	protected void flush() throws IOException {
+		if (this.writer != null) {
+			this.writer.flush();
+			this.channel.force(false);
+		}
+	}
+
+	protected void handle(PrintMessage message) throws IOException {
+		// The job is done, so no results are missing anymore
+		this.complete = true;
+		this.expected.clear();
+		this.drain();
+		this.flush();
+		this.log().info("Collected {} results, wrote {}", this.numCollected, this.numWritten);
 	}
 }
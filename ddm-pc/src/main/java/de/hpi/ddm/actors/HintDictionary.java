@@ -0,0 +1,182 @@
+package de.hpi.ddm.actors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import akka.actor.AbstractActor;
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionIdProvider;
+import akka.actor.Props;
+import akka.cluster.ddata.DistributedData;
+import akka.cluster.ddata.Key;
+import akka.cluster.ddata.LWWMap;
+import akka.cluster.ddata.LWWMapKey;
+import akka.cluster.ddata.Replicator;
+import akka.cluster.ddata.SelfUniqueAddress;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.HintIndex;
+import scala.Tuple2;
+import scala.collection.Iterator;
+
+public class HintDictionary implements Extension {
+
+	////////////////////////
+	// Extension Provider //
+	////////////////////////
+
+	public static class Provider extends AbstractExtensionId<HintDictionary> implements ExtensionIdProvider {
+
+		public static final Provider INSTANCE = new Provider();
+
+		private Provider() {
+		}
+
+		@Override
+		public Provider lookup() {
+			return INSTANCE;
+		}
+
+		@Override
+		public HintDictionary createExtension(ExtendedActorSystem system) {
+			return new HintDictionary(system);
+		}
+	}
+
+	/**
+	 * Retrieve the {@code HintDictionary} of the given ActorSystem. The dictionary maps the hex digest of every cracked
+	 * hint to its plaintext in a last-writer-wins map that Akka Distributed Data replicates to all nodes of the
+	 * cluster with delta propagation; the first retrieval starts the node's replica and feeds it into the node's
+	 * {@link HintIndex}.
+	 * @param system the local ActorSystem
+	 * @return the ActorSystem's {@code HintDictionary}
+	 */
+	public static HintDictionary get(ActorSystem system) {
+		return Provider.INSTANCE.get(system);
+	}
+
+	///////////
+	// State //
+	///////////
+
+	public static final String DEFAULT_NAME = "hintDictionary";
+
+	// The dictionary is split by the first hex digit of the digests, so that each change only replicates and
+	// notifies one sixteenth of it
+	private static final List<Key<LWWMap<String, String>>> KEYS = new ArrayList<>();
+	static {
+		for (int i = 0; i < 16; i++)
+			KEYS.add(LWWMapKey.create("hints-" + Integer.toHexString(i)));
+	}
+
+	private final ActorRef replicator;
+	private final SelfUniqueAddress node;
+	private final ActorRef replica;
+
+	private HintDictionary(ExtendedActorSystem system) {
+		this.replicator = DistributedData.get(system).replicator();
+		this.node = DistributedData.get(system).selfUniqueAddress();
+		this.replica = system.systemActorOf(Replica.props(HintIndex.get(system)), DEFAULT_NAME);
+		this.subscribe(this.replica);
+	}
+
+	/**
+	 * Publish cracked hints. They are written to the local replica and reach the other nodes with the next delta
+	 * propagation, so no actor waits for the write.
+	 * @param crackedHints the plaintexts of the cracked hints by their hex digests
+	 */
+	public void publish(Map<String, String> crackedHints) {
+		Map<Key<LWWMap<String, String>>, Map<String, String>> updates = new HashMap<>();
+		for (Map.Entry<String, String> hint : crackedHints.entrySet())
+			updates.computeIfAbsent(key(hint.getKey()), key -> new HashMap<>()).put(hint.getKey(), hint.getValue());
+
+		for (Map.Entry<Key<LWWMap<String, String>>, Map<String, String>> update : updates.entrySet()) {
+			this.replicator.tell(new Replicator.Update<>(update.getKey(), LWWMap.<String, String>create(), Replicator.writeLocal(), map -> {
+				for (Map.Entry<String, String> hint : update.getValue().entrySet())
+					map = map.put(this.node, hint.getKey(), hint.getValue());
+				return map;
+			}), this.replica);
+		}
+	}
+
+	/**
+	 * Subscribe an actor to the dictionary; it receives a {@link Replicator.Changed} message with the current part of
+	 * the dictionary whenever one of its parts changed.
+	 * @param subscriber the actor to be notified
+	 */
+	public void subscribe(ActorRef subscriber) {
+		for (Key<LWWMap<String, String>> key : KEYS)
+			this.replicator.tell(new Replicator.Subscribe<>(key, subscriber), ActorRef.noSender());
+	}
+
+	/**
+	 * Test if a message is a change notification of this dictionary.
+	 * @param message the message to be tested
+	 * @return true if the message is a {@link Replicator.Changed} message of one of the dictionary's parts
+	 */
+	public static boolean isChange(Replicator.Changed<?> message) {
+		return KEYS.contains(message.key());
+	}
+
+	/**
+	 * Retrieve the entries of a changed part of the dictionary that have not been seen yet. Each notification carries
+	 * the whole part, so only its digests are compared against the seen ones, which are then extended by the new
+	 * entries; parsing and resolving a hint thus happens once per hint instead of once per notification.
+	 * @param message the change notification
+	 * @param seen the hex digests of the entries seen so far, which is extended by the returned ones
+	 * @return the plaintexts of the part's new cracked hints by their hex digests
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, String> added(Replicator.Changed<?> message, Set<String> seen) {
+		Map<String, String> added = new HashMap<>();
+		Iterator<Tuple2<String, String>> entries = ((LWWMap<String, String>) message.dataValue()).entries().iterator();
+		while (entries.hasNext()) {
+			Tuple2<String, String> entry = entries.next();
+			if (seen.add(entry._1()))
+				added.put(entry._1(), entry._2());
+		}
+		return added;
+	}
+
+	private static Key<LWWMap<String, String>> key(String hexDigest) {
+		return KEYS.get(Character.digit(hexDigest.charAt(0), 16));
+	}
+
+	// Copies the replicated hints into the node's HintIndex, so that the local workers stop reporting them
+	private static class Replica extends AbstractActor {
+
+		private final HintIndex hintIndex;
+		private final Set<String> seen = new HashSet<>();	// The hex digests of the replicated hints that were resolved
+
+		public static Props props(HintIndex hintIndex) {
+			return Props.create(Replica.class, () -> new Replica(hintIndex));
+		}
+
+		public Replica(HintIndex hintIndex) {
+			this.hintIndex = hintIndex;
+		}
+
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder()
+					.match(Replicator.Changed.class, this::handle)
+					.match(Replicator.UpdateResponse.class, response -> {/*Local writes cannot time out*/})
+					.build();
+		}
+
+		private void handle(Replicator.Changed<?> message) {
+			for (Map.Entry<String, String> hint : added(message, this.seen).entrySet()) {
+				byte[] digest = HashEngine.fromHex(hint.getKey());
+				if (this.hintIndex.digests().get(digest) == null)
+					this.hintIndex.resolve(digest, hint.getValue());
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package de.hpi.ddm.actors;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import akka.actor.ActorRef;
+import akka.actor.Address;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.DigestLog;
+import de.hpi.ddm.structures.HashEngine;
+
+public class HintsShipper {
+
+	private final DigestLog log = new DigestLog();					// Every new hint digest and every cracked hint in the order they became known
+	private final Map<Address, Long> nodeVersions = new HashMap<>();	// The log version that each ActorSystem's HintIndex has or has been sent
+
+	/**
+	 * Retrieve the version of the hints log, i.e. the number of its entries.
+	 * @return the current version
+	 */
+	public long version() {
+		return this.log.size();
+	}
+
+	/**
+	 * Append a newly known hint digest or a newly cracked hint to the hints log.
+	 * @param digest the hint's digest
+	 * @param plaintext the hint's plaintext or null if it is not (yet) cracked
+	 */
+	public void append(byte[] digest, String plaintext) {
+		this.log.append(digest, plaintext);
+	}
+
+	/**
+	 * Bring the HintIndex of the worker's ActorSystem up to date. All workers of an ActorSystem share one HintIndex,
+	 * so each entry of the hints log is sent only once per node.
+	 * @param worker the worker that receives the missing entries on behalf of its node
+	 * @param sender the sender of the delta messages
+	 */
+	public void ship(ActorRef worker, ActorRef sender) {
+		Address node = worker.path().address();
+		long nodeVersion = this.nodeVersions.getOrDefault(node, 0L);
+		if (nodeVersion < this.log.size()) {
+			this.send(worker, (int) nodeVersion, sender);
+			this.nodeVersions.put(node, (long) this.log.size());
+		}
+	}
+
+	private void send(ActorRef worker, int from, ActorRef sender) {
+		// Send the log entries from the node's version on in chunks of bufferSize entries; within a chunk, a digest
+		// that was cracked after it was announced is sent only once together with its plaintext
+		int chunkSize = ConfigurationSingleton.get().getBufferSize();
+		for (int start = from; start < this.log.size(); start += chunkSize) {
+			int end = Math.min(this.log.size(), start + chunkSize);
+			Map<ByteBuffer, String> chunk = new LinkedHashMap<ByteBuffer, String>();
+			for (int ii = start; ii < end; ii++) {
+				ByteBuffer digest = ByteBuffer.wrap(this.log.digest(ii));
+				String plaintext = this.log.plaintext(ii);
+				if ((plaintext != null) || !chunk.containsKey(digest))
+					chunk.put(digest, plaintext);
+			}
+			ByteBuffer digests = ByteBuffer.allocate(chunk.size() * HashEngine.DIGEST_LENGTH);
+			for (ByteBuffer digest : chunk.keySet())
+				digests.put(digest.array());
+			worker.tell(new Worker.HintsHashesMessage(start, end, digests.array(), new ArrayList<String>(chunk.values())), sender);
+		}
+	}
+
+	/**
+	 * Record the HintIndex version that a worker reported for its node.
+	 * @param worker the reporting worker
+	 * @param version the version of the worker's HintIndex
+	 */
+	public void update(ActorRef worker, long version) {
+		this.nodeVersions.merge(worker.path().address(), version, Math::max);
+	}
+
+	/**
+	 * Forget the version of a worker's node, e.g. because the worker died before it applied the entries it was sent;
+	 * the node's other workers report its actual version with their next message, which avoids most of the resending.
+	 * @param worker the terminated worker
+	 */
+	public void forget(ActorRef worker) {
+		this.nodeVersions.remove(worker.path().address());
+	}
+}
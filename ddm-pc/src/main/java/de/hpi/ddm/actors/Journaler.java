@@ -0,0 +1,147 @@
+package de.hpi.ddm.actors;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.Journal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import scala.concurrent.duration.FiniteDuration;
+
+public class Journaler extends AbstractLoggingActor {
+
+	////////////////////////
+	// Actor Construction //
+	////////////////////////
+
+	public static final String DEFAULT_NAME = "journaler";
+
+	// Forcing the journal to disk blocks, so the journaler runs on Akka's dispatcher for blocking I/O
+	public static final String JOURNAL_DISPATCHER = "akka.actor.default-blocking-io-dispatcher";
+
+	public static Props props(final Journal journal) {
+		return Props.create(Journaler.class, () -> new Journaler(journal)).withDispatcher(JOURNAL_DISPATCHER);
+	}
+
+	public Journaler(final Journal journal) {
+		this.journal = journal;
+	}
+
+	////////////////////
+	// Actor Messages //
+	////////////////////
+
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class HintsMessage implements Serializable {
+		private static final long serialVersionUID = 1948313496036217531L;
+		private Hashtable<String, String> crackedHints;
+	}
+
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class PasswordMessage implements Serializable {
+		private static final long serialVersionUID = -5542106880637880294L;
+		private String passwordHash;	// The hex digest of the user's password
+		private String password;		// The password that was collected for the user
+	}
+
+	@Data
+	public static class FlushMessage implements Serializable {
+		private static final long serialVersionUID = 7377010914935426322L;
+	}
+
+	@Data
+	public static class CompactMessage implements Serializable {
+		private static final long serialVersionUID = -3049366960124567419L;
+	}
+
+	/////////////////
+	// Actor State //
+	/////////////////
+
+	private final Journal journal;	// The journal or null if journaling is disabled
+	private Cancellable flushing;
+
+	/////////////////////
+	// Actor Lifecycle //
+	/////////////////////
+
+	@Override
+	public void preStart() {
+		Reaper.watchWithDefaultReaper(this);
+
+		if (this.journal == null)
+			return;
+		FiniteDuration interval = FiniteDuration.create(ConfigurationSingleton.get().getJournalFlushInterval(), TimeUnit.MILLISECONDS);
+		this.flushing = this.context().system().scheduler().schedule(interval, interval, this.self(), new FlushMessage(), this.context().dispatcher(), ActorRef.noSender());
+	}
+
+	@Override
+	public void postStop() throws IOException {
+		if (this.journal == null)
+			return;
+		this.flushing.cancel();
+		this.journal.close();
+	}
+
+	////////////////////
+	// Actor Behavior //
+	////////////////////
+
+	@Override
+	public Receive createReceive() {
+		return receiveBuilder()
+				.match(HintsMessage.class, this::handle)
+				.match(PasswordMessage.class, this::handle)
+				.match(FlushMessage.class, this::handle)
+				.match(CompactMessage.class, this::handle)
+				.matchAny(object -> this.log().info("Received unknown message: \"{}\"", object.toString()))
+				.build();
+	}
+
+	protected void handle(HintsMessage message) {
+		if (this.journal == null)
+			return;
+		for (Map.Entry<String, String> hint : message.getCrackedHints().entrySet())
+			this.journal.hint(HashEngine.fromHex(hint.getKey()), hint.getValue());
+	}
+
+	protected void handle(PasswordMessage message) {
+		if (this.journal == null)
+			return;
+		this.journal.password(HashEngine.fromHex(message.getPasswordHash()), message.getPassword());
+	}
+
+	protected void handle(FlushMessage message) throws IOException {
+		// Records are only buffered on arrival and written as one frame per interval, which keeps the masters' hot path
+		// free of I/O and bounds the records that a crash can lose to those of the last interval
+		if (this.journal == null)
+			return;
+		this.journal.flush();
+		
+		// A job that follows its dataset never ends, so its journal is also compacted once enough frames have piled up
+		int compactFrames = ConfigurationSingleton.get().getJournalCompactFrames();
+		if ((compactFrames > 0) && (this.journal.frames() >= compactFrames))
+			this.compact();
+	}
+
+	protected void handle(CompactMessage message) throws IOException {
+		if (this.journal == null)
+			return;
+		this.compact();
+	}
+
+	protected void compact() throws IOException {
+		Journal.Checkpoint checkpoint = this.journal.compact();
+		this.log().info("Compacted the journal to {} hints and {} passwords", checkpoint.getHints().size(), checkpoint.getPasswords().size());
+	}
+}
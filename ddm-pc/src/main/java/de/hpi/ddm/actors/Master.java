@@ -1,21 +1,39 @@
 package de.hpi.ddm.actors;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Hashtable;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import akka.actor.AbstractLoggingActor;
 import akka.actor.ActorRef;
+import akka.actor.Address;
+import akka.actor.Cancellable;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
 import akka.actor.Terminated;
+import akka.cluster.Cluster;
+import akka.cluster.ClusterEvent;
+import akka.cluster.ddata.Replicator;
 import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.CombinationGenerator;
+import de.hpi.ddm.structures.DigestIndex;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.Journal;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import scala.concurrent.duration.FiniteDuration;
 
 public class Master extends AbstractLoggingActor {
 
@@ -25,19 +43,25 @@ public class Master extends AbstractLoggingActor {
 	
 	public static final String DEFAULT_NAME = "master";
 
-	public static Props props(final ActorRef reader, final ActorRef collector) {
-		return Props.create(Master.class, () -> new Master(reader, collector));
+	public static Props props(final ActorRef reader, final ActorRef collector, final ActorRef journaler, final Journal.Checkpoint checkpoint) {
+		return Props.create(Master.class, () -> new Master(reader, collector, journaler, checkpoint));
 	}
 
-	public Master(final ActorRef reader, final ActorRef collector) {
+	public Master(final ActorRef reader, final ActorRef collector, final ActorRef journaler, final Journal.Checkpoint checkpoint) {
 		this.reader = reader;
 		this.collector = collector;
+		this.journaler = journaler;
+		this.checkpoint = checkpoint;
 		this.workers = new ArrayList<>();
-		this.freeWorkers = new ArrayList<>();
+		this.requestedTasks = new HashMap<>();
+		this.runningTasks = new HashMap<>();
+		this.orphanedTasks = new ArrayDeque<>();
+		this.unreachableNodes = new HashSet<>();
 
-		this.toCrack = new ArrayList<String[]>();
-		this.allHints = new HashSet<String>();
-		//this.allHints = new ArrayList<String>();
+		this.toCrack = new ArrayDeque<String[]>();
+		this.allHints = new DigestIndex();
+		this.hintsShipper = new HintsShipper();
+		this.workerMetrics = new WorkerMetrics(Cluster.get(this.context().system()).selfAddress());
 	}
 
 	////////////////////
@@ -52,7 +76,10 @@ public class Master extends AbstractLoggingActor {
 	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class ResultMessage implements Serializable {
 		private static final long serialVersionUID = -4884396984570239244L;
-		private String[] result;
+		private int id;				// The ID of the user whose password candidates were searched
+		private String password;	// The password or null if it is not in the searched range
+		private long start;			// The index of the first searched password candidate
+		private long end;			// The index after the last searched password candidate
 	}
 	
 	@Data @NoArgsConstructor @AllArgsConstructor
@@ -64,12 +91,90 @@ public class Master extends AbstractLoggingActor {
 	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class HintMessage implements Serializable {
 		private static final long serialVersionUID = -822966750270011344L;
+		private int unit;			// The number of the hint unit whose hints were cracked
 		private Hashtable<String, String> crackedHints;
+		private long hintsVersion;	// The version of the sender's HintIndex
+		private int numReplicated;	// The number of cracked hints that the sender published to the replicated HintDictionary instead
 	}
 
-	@Data
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class WorkRequestMessage implements Serializable {
+		private static final long serialVersionUID = 2720412574785622913L;
+		private int numTasks;		// The number of further tasks that the sender is ready to take
+	}
+
+	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class RegistrationMessage implements Serializable {
 		private static final long serialVersionUID = 3303081601659723997L;
+		private long hintsVersion;	// The version of the sender's HintIndex
+	}
+
+	@Data
+	public static class SpeculationMessage implements Serializable {
+		private static final long serialVersionUID = -6236384447101796178L;
+	}
+
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class MetricsMessage implements Serializable {
+		private static final long serialVersionUID = 5406468102359862263L;
+		private long hashes;			// The number of candidates that the sender hashed since its last report
+		private long filterProbes;		// The number of hint candidates that the sender tested against its Bloom filter
+		private long filterPasses;		// The number of those candidates that passed the filter and probed the exact hint index
+		private long filterHits;		// The number of those candidates that the hint index contained
+		private long[] serviceTimes;	// The Histogram counts of the microseconds that the sender's finished tasks took
+		private long[] queueWaits;		// The Histogram counts of the microseconds that the sender's tasks waited for the compute pool
+	}
+
+	@Data
+	public static class SummaryMessage implements Serializable {
+		private static final long serialVersionUID = -2851403322360227384L;
+	}
+	
+	// A user whose password search waits for hints to be cracked
+	private static class WaitingUser {
+		private final String[] line;
+		private int unresolvedHints;
+		private boolean released = false;
+		
+		private WaitingUser(String[] line) {
+			this.line = line;
+			this.unresolvedHints = line.length - 5;
+		}
+	}
+	
+	// The search for one user's password, whose candidate space is handed out to the workers in index ranges
+	private static class PasswordJob {
+		private final String[] line;
+		private final String letters;						// The letters that the password can consist of, fixed for the job's lifetime
+		private final long size;							// The number of password candidates
+		private long next = 0;								// The index of the first candidate that is not yet handed out
+		private long searched = 0;							// The number of candidates that have been searched
+		private final Map<Long, RunningTask> ranges = new HashMap<>();	// The handed out ranges whose result is missing by their start index
+		private String password = null;
+		
+		private PasswordJob(String[] line, String letters, long size) {
+			this.line = line;
+			this.letters = letters;
+			this.size = size;
+		}
+		
+		private int getId() {
+			return Integer.parseInt(this.line[0]);
+		}
+	}
+	
+	// A hint unit or password range that has been handed out, to several workers at once if it is run speculatively
+	private static class RunningTask {
+		private final Serializable task;					// The Worker.HashMessage or Worker.TaskMessage
+		private final List<ActorRef> workers = new ArrayList<>();	// The workers that run a copy of this task
+		private long startTime;								// The time when the task was handed out to the first of its workers
+		private boolean done = false;						// True once the first copy of the task has finished
+		private long hintsVersion = Long.MAX_VALUE;			// The oldest hints version that a copy of the hint unit is checked against
+		private boolean replicated = false;					// True if the copies of the hint unit publish their hints to the HintDictionary
+		
+		private RunningTask(Serializable task) {
+			this.task = task;
+		}
 	}
 	
 	/////////////////
@@ -78,18 +183,40 @@ public class Master extends AbstractLoggingActor {
 
 	private final ActorRef reader;
 	private final ActorRef collector;
+	private final ActorRef journaler;
+	private final Journal.Checkpoint checkpoint;			// The hints and passwords that a previous run of the job has journaled
 	private final List<ActorRef> workers;
-	private final List<ActorRef> freeWorkers;
+	private final Map<ActorRef, Integer> requestedTasks;	// The number of tasks that each worker has requested but not yet received
+	private final Map<ActorRef, List<RunningTask>> runningTasks;	// The tasks that each worker has received but not yet finished
+	private final Deque<RunningTask> orphanedTasks;		// The running tasks whose workers all died or became unreachable
+	private final Set<Address> unreachableNodes;		// The nodes whose workers receive no tasks until they are reachable again
+	private Cancellable speculating;
+	private Cancellable summarizing;
+	private WorkerMetrics workerMetrics;					// The hash rates and task latencies that the workers reported
 
 	private long startTime;
-	private List<String[]> toCrack;
-	private HashSet<String> allHints;
-//	private List<String> allHints;
-	private Hashtable<String, String> crackedHints;
+	private Deque<String[]> toCrack;					// The users whose password search can start, because their hints are cracked
+	private Map<String, List<WaitingUser>> waitingUsers;	// The users whose password search waits for hints by their unresolved hint digests
+	private int numWaitingUsers;
+	private Map<Integer, PasswordJob> passwordJobs;		// All started but unfinished password jobs by user ID
+	private Deque<PasswordJob> openPasswordJobs;		// The started password jobs with candidate ranges that are not yet handed out
+	private int numUsers;
+	private int numFinishedUsers;
+	private int numResumedUsers;
+	private DigestIndex allHints; // All hint digests and, once cracked, their plaintexts
+	private HintsShipper hintsShipper;						// Ships the hints log to the workers' HintIndexes
+	private long hintsVersion;								// The hints log version that contains all hint digests known so far
 	private List<String> passwordChars;
-	private List<String> toProcessChars;
-	private int toProcessID;
+	private Deque<Worker.HashMessage> hintUnits;
+	private int numHintUnits;								// The number of hint units created so far, which numbers the next one
+	private NavigableMap<Long, List<byte[]>> batchDigests;	// The new hint digests of each batch by the hints version that contains them; only kept for early starts
+	private List<RunningTask> staleHintUnits;				// The finished hint units that may miss digests of later batches
+	private Map<Integer, RunningTask> runningHintUnits;	// The handed out hint units whose result is missing by their unit number
+	private int numPublishedHints;							// The hints that the hint units published to the HintDictionary
+	private int numReplicatedHints;							// The published hints that already reached this node's replica
+	private Set<String> seenReplicatedHints;				// The hex digests of the HintDictionary's entries that were processed
 	private boolean dataLoaded;
+	private boolean terminated;
 	
 	/////////////////////
 	// Actor Lifecycle //
@@ -98,6 +225,27 @@ public class Master extends AbstractLoggingActor {
 	@Override
 	public void preStart() {
 		Reaper.watchWithDefaultReaper(this);
+		Cluster.get(this.context().system()).subscribe(this.self(), ClusterEvent.initialStateAsEvents(), ClusterEvent.UnreachableMember.class, ClusterEvent.ReachableMember.class);
+		
+		// Stragglers only become apparent over time, so idle workers are regularly checked for speculative duplicates
+		long speculationDelay = ConfigurationSingleton.get().getSpeculationDelay();
+		if (speculationDelay >= 0) {
+			FiniteDuration interval = FiniteDuration.create(Math.max(100, speculationDelay), TimeUnit.MILLISECONDS);
+			this.speculating = this.context().system().scheduler().schedule(interval, interval, this.self(), new SpeculationMessage(), this.context().dispatcher(), ActorRef.noSender());
+		}
+		this.summarizing = WorkerMetrics.schedule(this.context(), this.self());
+		
+		if (ConfigurationSingleton.get().isReplicatedHints())
+			HintDictionary.get(this.context().system()).subscribe(this.self());
+	}
+	
+	@Override
+	public void postStop() {
+		Cluster.get(this.context().system()).unsubscribe(this.self());
+		if (this.speculating != null)
+			this.speculating.cancel();
+		if (this.summarizing != null)
+			this.summarizing.cancel();
 	}
 
 	////////////////////
@@ -112,7 +260,14 @@ public class Master extends AbstractLoggingActor {
 				.match(ResultMessage.class, this::handle)
 				.match(Terminated.class, this::handle)
 				.match(HintMessage.class, this::handle)
+				.match(Replicator.Changed.class, this::handle)
 				.match(RegistrationMessage.class, this::handle)
+				.match(WorkRequestMessage.class, this::handle)
+				.match(SpeculationMessage.class, this::handle)
+				.match(MetricsMessage.class, this::handle)
+				.match(SummaryMessage.class, this::handle)
+				.match(ClusterEvent.UnreachableMember.class, this::handle)
+				.match(ClusterEvent.ReachableMember.class, this::handle)
 				.matchAny(object -> this.log().info("Received unknown message: \"{}\"", object.toString()))
 				.build();
 	}
@@ -121,13 +276,29 @@ public class Master extends AbstractLoggingActor {
 		this.startTime = System.currentTimeMillis();
 		
 		this.dataLoaded = false;
+		this.terminated = false;
 		this.passwordChars = new ArrayList<String>();
-		this.toProcessChars = new ArrayList<String>();
-		this.toProcessID = 0;
+		this.hintUnits = new ArrayDeque<Worker.HashMessage>();
+		this.numHintUnits = 0;
+		this.batchDigests = new TreeMap<Long, List<byte[]>>();
+		this.staleHintUnits = new ArrayList<RunningTask>();
+		this.runningHintUnits = new HashMap<Integer, RunningTask>();
+		this.numPublishedHints = 0;
+		this.numReplicatedHints = 0;
+		this.seenReplicatedHints = new HashSet<String>();
 		
-		this.crackedHints = new Hashtable<String, String>();
-		this.allHints = new HashSet<String>();
-		this.toCrack = new ArrayList<String[]>();
+		this.allHints = new DigestIndex();
+		this.hintsShipper = new HintsShipper();
+		this.workerMetrics = new WorkerMetrics(Cluster.get(this.context().system()).selfAddress());
+		this.hintsVersion = 0;
+		this.toCrack = new ArrayDeque<String[]>();
+		this.waitingUsers = new HashMap<String, List<WaitingUser>>();
+		this.numWaitingUsers = 0;
+		this.passwordJobs = new HashMap<Integer, PasswordJob>();
+		this.openPasswordJobs = new ArrayDeque<PasswordJob>();
+		this.numUsers = 0;
+		this.numFinishedUsers = 0;
+		this.numResumedUsers = 0;
 		
 		this.reader.tell(new Reader.ReadMessage(), this.self()); // Start the reader
 	}
@@ -137,113 +308,563 @@ public class Master extends AbstractLoggingActor {
 		// Ask the workers to crack the hashes once all the data are loaded
 		
 		if (message.getLines().isEmpty()) {
+			if (this.numResumedUsers > 0)
+				this.log().info("Resumed {} of {} users from the journal", this.numResumedUsers, this.numUsers);
+			this.collector.tell(new Collector.ExpectMessage(new int[0], true), this.self());
 			this.dataLoaded = true;
+			if (this.numHintUnits == 0)
+				this.createHintUnits();
+			// All digests are known now, so the units that finished early are checked for the ones they missed; a
+			// followed dataset can still grow, so its units are kept until they run again
+			this.staleHintUnits.removeIf(this::recheck);
+			if (!ConfigurationSingleton.get().isFollowDataset())
+				this.staleHintUnits.clear();
+			this.forgetCheckedBatches();
+			if (this.hintUnitsDone())
+				this.releaseAll();
 			this.distribute();
+			
+			if (ConfigurationSingleton.get().isFollowDataset())
+				this.reader.tell(new Reader.ReadMessage(), this.self());
 			return;
 		}
 		
+		// A followed dataset grew, so the users that wait for hints are only released once the new batches are checked
+		this.dataLoaded = false;
+		
+		// The collector must know the batch's IDs before the results of resumed users arrive, or it would wait for them forever
+		this.collector.tell(new Collector.ExpectMessage(message.getLines().stream().mapToInt(line -> Integer.parseInt(line[0])).toArray(), false), this.self());
+		
+		List<byte[]> batchDigests = new ArrayList<byte[]>();
 		for (String[] line : message.getLines()) {
-			toCrack.add(line);
+			this.numUsers++;
+			if (this.resume(line))
+				continue;
 			for (int ii=5; ii < line.length; ii++) {
-				allHints.add(line[ii]);
+				byte[] digest = HashEngine.fromHex(line[ii]);
+				if (allHints.add(digest)) {
+					// Hints that a previous run has cracked are shipped as cracked, so no worker reports them again
+					String plaintext = this.checkpoint.getHints().get(digest);
+					if (plaintext != null)
+						this.allHints.put(digest, plaintext);
+					this.hintsShipper.append(digest, plaintext);
+					batchDigests.add(digest);
+				}
 			}
+			this.await(line);
 		}
+		this.hintsVersion = this.hintsShipper.version();
 		// This only need to be done once but has a negligible cost so...
-		this.passwordChars = Arrays.asList(toCrack.get(0)[2].split(""));
-		this.toProcessChars = Arrays.asList(toCrack.get(0)[2].split(""));
+		this.passwordChars = Arrays.asList(message.getLines().get(0)[2].split(""));
+		
+		if (ConfigurationSingleton.get().isEarlyStart() || ConfigurationSingleton.get().isFollowDataset()) {
+			// The first batch fixes the alphabet, so the workers crack hints while the rest of the dataset is loaded; a
+			// batch without new digests, e.g. of resumed users only, keeps the hints version of the previous batch and
+			// must not replace its digests
+			if (!batchDigests.isEmpty())
+				this.batchDigests.put(this.hintsVersion, batchDigests);
+			if (this.numHintUnits == 0)
+				this.createHintUnits();
+			this.distribute();
+		}
 		
 		this.reader.tell(new Reader.ReadMessage(), this.self());
 	}
 	
-	protected void distribute() {
+	protected boolean resume(String[] line) {
+		// A user whose password a previous run has collected is done without cracking any of its hints
+		String password = this.checkpoint.getPasswords().get(HashEngine.fromHex(line[4]));
+		if (password == null)
+			return false;
+		
+		this.collector.tell(new Collector.CollectMessage(Integer.parseInt(line[0]), password), this.self());
+		this.numFinishedUsers++;
+		this.numResumedUsers++;
+		return true;
+	}
+	
+	protected void assign() {
 		// Main "thought" routine of the master, distribute the jobs and controls that intermediate steps are completed
-		List<ActorRef> notFree = new ArrayList<ActorRef>();
-		for (ActorRef worker : this.freeWorkers) {
-			if (!this.dataLoaded) {
-				return;
-			} else if (this.dataLoaded && this.toProcessID < this.passwordChars.size()) {
-				// Crack the hints first
-				String nextChar = this.toProcessChars.get(this.toProcessID);
-				this.toProcessID++;
-				this.sendHintsHashes(worker);
-				/* Convert the List<String> (one character strings) into a String to send to the workers, as the original List<String>
-				cannot be deserialized by Kryos for unknown reasons*/
-				String post = new String("");
-				for (String cc: this.passwordChars) {
-					post += cc;
+		if (!this.dataLoaded && (this.numHintUnits == 0))
+			return;
+		
+		// Serve the workers' requests round-robin, so that tasks spread evenly while every worker keeps its tasks in flight
+		boolean assigned = true;
+		while (assigned) {
+			assigned = false;
+			for (ActorRef worker : this.workers) {
+				if (this.unreachableNodes.contains(worker.path().address()))
+					continue;
+				if ((this.requestedTasks.getOrDefault(worker, 0) > 0) && this.assign(worker)) {
+					this.requestedTasks.merge(worker, -1, Integer::sum);
+					assigned = true;
 				}
-				worker.tell(new Worker.PasswordCharsMessage(post), this.self());
-				worker.tell(new Worker.HashMessage(nextChar), this.self());
-				notFree.add(worker);
-			} else if (!this.toCrack.isEmpty() && this.crackedHints.size() == this.allHints.size()) {
-				// Crack the passwords once the hints have been cracked
-				this.sendCrackedHints(worker);
-				worker.tell(new Worker.TaskMessage(this.toCrack.get(0)), this.self());
-				this.toCrack.remove(0);
-				notFree.add(worker);
 			}
 		}
-		for (ActorRef worker : notFree) {
-			this.freeWorkers.remove(worker);
+	}
+	
+	protected boolean assign(ActorRef worker) {
+		RunningTask task = this.nextOrphanedTask();
+		if ((task == null) && (this.nextPasswordJob() != null)) {
+			// Crack the passwords of all users whose hints have been cracked, handing out one candidate range per task
+			PasswordJob job = this.openPasswordJobs.peek();
+			long start = job.next;
+			long end = Math.min(job.size, start + ConfigurationSingleton.get().getPasswordUnitSize());
+			job.next = end;
+			if (job.next >= job.size)
+				this.openPasswordJobs.poll();
+			
+			task = new RunningTask(new Worker.TaskMessage(job.getId(), HashEngine.fromHex(job.line[4]), Integer.parseInt(job.line[3]), HashEngine.toBytes(job.letters), start, end));
+			job.ranges.put(start, task);
+		} else if ((task == null) && !this.hintUnits.isEmpty() && this.numWaitingUsers > 0) {
+			// Crack the hints to unlock further users
+			Worker.HashMessage hintUnit = this.hintUnits.poll();
+			task = new RunningTask(hintUnit);
+			task.replicated = hintUnit.isReplicated();
+			this.runningHintUnits.put(hintUnit.getUnit(), task);
+		} else if (task == null) {
+			task = this.nextStraggler(worker);
 		}
+		
+		if (task == null)
+			return false;
+		this.dispatch(task, worker);
+		return true;
 	}
 	
-	protected void sendHintsHashes(ActorRef worker) {
-		int ii = 1;
-		List<String> tmp = new ArrayList<String>();
-		for (String hh : this.allHints) {
-			tmp.add(hh);
-			if (ii % ConfigurationSingleton.get().getBufferSize() == 0) {
-				worker.tell(new Worker.HintsHashesMessage(tmp), this.self());
-				tmp = new ArrayList<String>(); // Not clear() as it passes by reference if on the same JVM
+	protected void dispatch(RunningTask task, ActorRef worker) {
+		if (task.workers.isEmpty())
+			task.startTime = System.currentTimeMillis();
+		task.workers.add(worker);
+		this.runningTasks.computeIfAbsent(worker, key -> new ArrayList<RunningTask>()).add(task);
+		
+		if (task.task instanceof Worker.HashMessage) {
+			Worker.HashMessage hintUnit = (Worker.HashMessage) task.task;
+			task.hintsVersion = Math.min(task.hintsVersion, this.hintsVersion);
+			this.hintsShipper.ship(worker, this.self());
+			/* Convert the List<String> (one character strings) into a String to send to the workers, as the original List<String>
+			cannot be deserialized by Kryos for unknown reasons*/
+			String post = new String("");
+			for (String cc: this.passwordChars) {
+				post += cc;
 			}
-			ii++;
+			worker.tell(new Worker.PasswordCharsMessage(post), this.self());
+			// Each copy of a unit carries the hints version that was shipped to its own node
+			worker.tell(new Worker.HashMessage(hintUnit.getUnit(), hintUnit.getCharacter(), hintUnit.getPrefix(), this.hintsVersion, task.replicated), this.self());
+		} else {
+			worker.tell(task.task, this.self());
+		}
+	}
+	
+	protected RunningTask nextOrphanedTask() {
+		// The job cannot finish without the tasks of lost workers, so they are handed out again before any new task;
+		// hint units are only needed while users wait for their hints
+		while (!this.orphanedTasks.isEmpty()) {
+			RunningTask task = this.orphanedTasks.poll();
+			if (!task.done && task.workers.isEmpty() && ((task.task instanceof Worker.TaskMessage) || this.numWaitingUsers > 0))
+				return task;
+		}
+		return null;
+	}
+	
+	protected RunningTask nextStraggler(ActorRef worker) {
+		// Once no other work is left, an idle worker runs a duplicate of the longest running task of another node, so that
+		// one slow node does not decide the job's end; the workers of a node share their compute pool, so a duplicate on
+		// the original's node would only slow the original down
+		long speculationDelay = ConfigurationSingleton.get().getSpeculationDelay();
+		if (speculationDelay < 0)
+			return null;
+		
+		List<RunningTask> candidates = new ArrayList<>();
+		for (PasswordJob job : this.passwordJobs.values())
+			candidates.addAll(job.ranges.values());
+		if (this.numWaitingUsers > 0)
+			candidates.addAll(this.runningHintUnits.values());
+		
+		long now = System.currentTimeMillis();
+		RunningTask straggler = null;
+		for (RunningTask task : candidates) {
+			if ((task.workers.size() != 1) || (now - task.startTime < speculationDelay))
+				continue;
+			if (task.workers.get(0).path().address().equals(worker.path().address()))
+				continue;
+			if ((straggler == null) || (task.startTime < straggler.startTime))
+				straggler = task;
 		}
-		worker.tell(new Worker.HintsHashesMessage(tmp), this.self());
+		if (straggler != null)
+			this.log().info("Running a speculative duplicate of a task that has been running for {} ms on {}", now - straggler.startTime, worker.path());
+		return straggler;
 	}
 	
-	protected void sendCrackedHints(ActorRef worker) {
-		int ii = 0;
-		Hashtable<String,String> tmp = new Hashtable<String,String>();
-		for (String key : this.crackedHints.keySet()) {
-			tmp.put(key, this.crackedHints.get(key));
-			if (ii % ConfigurationSingleton.get().getBufferSize() == 0) {
-				worker.tell(new Worker.CrackedHintsMessage(tmp), this.self());
-				tmp = new Hashtable<String, String>(); // Not clear() as it passes by reference if on the same JVM
+	protected void complete(RunningTask task) {
+		// The first copy of a task that finishes wins, so the task is taken away from the workers of all other copies
+		task.done = true;
+		for (ActorRef worker : task.workers) {
+			List<RunningTask> tasks = this.runningTasks.get(worker);
+			if (tasks != null)
+				tasks.remove(task);
+		}
+	}
+	
+	protected void orphan(ActorRef worker) {
+		// Hand the worker's tasks out again unless another worker still runs a copy of them
+		List<RunningTask> tasks = this.runningTasks.remove(worker);
+		if (tasks == null)
+			return;
+		for (RunningTask task : tasks) {
+			task.workers.remove(worker);
+			if (task.workers.isEmpty()) {
+				// The lost copies of a hint unit may have published some of its hints already, so the next copy returns them
+				task.replicated = false;
+				this.orphanedTasks.add(task);
+			}
+		}
+		if (!tasks.isEmpty())
+			this.log().warning("Handing out {} tasks of the lost worker {} again", tasks.size(), worker.path());
+	}
+	
+	protected PasswordJob nextPasswordJob() {
+		// Start the next user's password job unless a started job still has candidate ranges to hand out
+		while (this.openPasswordJobs.isEmpty() && !this.toCrack.isEmpty()) {
+			String[] line = this.toCrack.poll();
+			String letters = passwordLetters(line, this.allHints);
+			PasswordJob job;
+			try {
+				job = new PasswordJob(line, letters, CombinationGenerator.size(letters.length(), Integer.parseInt(line[3])));
+			} catch (ArithmeticException e) {
+				this.log().error("Password space of user {} with letters {} is too large to be searched.", line[0], letters);
+				this.finish(new PasswordJob(line, letters, 0));
+				continue;
+			}
+			
+			if (job.size == 0) {
+				this.finish(job);
+				continue;
 			}
-			ii++;
+			this.passwordJobs.put(job.getId(), job);
+			this.openPasswordJobs.add(job);
+		}
+		return this.openPasswordJobs.peek();
+	}
+	
+	protected void finish(PasswordJob job) {
+		// Ranges of the job that are still being searched, e.g. because the password was found in another range, are cancelled
+		this.passwordJobs.remove(job.getId());
+		HashSet<ActorRef> searching = new HashSet<ActorRef>();
+		for (RunningTask range : job.ranges.values()) {
+			searching.addAll(range.workers);
+			this.complete(range);
+		}
+		job.ranges.clear();
+		for (ActorRef worker : searching)
+			worker.tell(new Worker.CancelMessage(job.getId()), this.self());
+		
+		String password = (job.password != null) ? job.password : "randomPassword";
+		this.collector.tell(new Collector.CollectMessage(job.getId(), password), this.self());
+		// Only found passwords are journaled, so that a restarted job searches the other users again
+		if (job.password != null)
+			this.journaler.tell(new Journaler.PasswordMessage(job.line[4], password), this.self());
+		
+		this.numFinishedUsers++;
+		this.log().debug("Searched {} of {} password candidates of user {}", job.searched, job.size, job.line[0]);
+		this.log().info("Password of user {} is {} ({} of {} users done)", job.line[0], password, this.numFinishedUsers, this.numUsers);
+	}
+	
+	protected void await(String[] line) {
+		// Register the user's unresolved hints, so that its password search is released once they are cracked
+		WaitingUser user = new WaitingUser(line);
+		this.numWaitingUsers++;
+		for (int ii = 5; ii < line.length; ii++) {
+			byte[] digest = HashEngine.fromHex(line[ii]);
+			if (this.allHints.get(digest) == null)
+				this.waitingUsers.computeIfAbsent(HashEngine.toHex(digest), hint -> new ArrayList<WaitingUser>()).add(user);
+			else
+				user.unresolvedHints--;
 		}
-		worker.tell(new Worker.CrackedHintsMessage(tmp), this.self());
+		this.releaseIfReady(user);
+	}
+	
+	protected void resolved(String hint) {
+		List<WaitingUser> users = this.waitingUsers.remove(hint);
+		if (users == null)
+			return;
+		
+		for (WaitingUser user : users) {
+			user.unresolvedHints--;
+			this.releaseIfReady(user);
+		}
+	}
+	
+	protected void releaseIfReady(WaitingUser user) {
+		// A user is ready once all its hints are cracked or the remaining password space is small enough to be searched anyway
+		if (user.released)
+			return;
+		
+		if (user.unresolvedHints > 0) {
+			int numLetters = passwordLetters(user.line, this.allHints).length();
+			int passwordLength = Integer.parseInt(user.line[3]);
+			if (Math.pow(numLetters, passwordLength) > ConfigurationSingleton.get().getPasswordSpaceThreshold())
+				return;
+		}
+		this.release(user);
+	}
+	
+	protected void release(WaitingUser user) {
+		user.released = true;
+		this.numWaitingUsers--;
+		this.toCrack.add(user.line);
+	}
+	
+	protected void releaseAll() {
+		// All hint units are done, so hints that are still unresolved are no permutations and cannot be cracked at all
+		for (List<WaitingUser> users : this.waitingUsers.values())
+			for (WaitingUser user : users)
+				if (!user.released)
+					this.release(user);
+		this.waitingUsers.clear();
+	}
+	
+	/**
+	 * Determine the letters that a password can consist of: every cracked hint lacks exactly one letter of the
+	 * password alphabet, which then cannot be part of the password.
+	 * @param line the user's record
+	 * @param hints the hint digests with their known plaintexts
+	 * @return the possible password letters in alphabet order
+	 */
+	protected static String passwordLetters(String[] line, DigestIndex hints) {
+		char[] passwordChars = line[2].toCharArray();
+		HashSet<Character> notLetters = new HashSet<Character>();
+		for (int ii = 5; ii < line.length; ii++) {
+			String hint = hints.get(HashEngine.fromHex(line[ii]));
+			if (hint != null) {
+				notLetters.add(findMissingLetter(passwordChars, hint.toCharArray()));
+			}
+		}
+		
+		String finalLetters = new String("");
+		for (char cc : passwordChars) {
+			if (!notLetters.contains(cc)) {
+				finalLetters += cc;
+			}
+		}
+		return finalLetters;
+	}
+	
+	private static char findMissingLetter(char[] alphabet, char[] target) {
+		boolean found = false;
+		for (char ii : alphabet) {
+			for (char jj : target) {
+				if (ii == jj) {
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				return(ii);
+			}
+			found = false;
+		}
+		return "".charAt(0); // Buggy but shouldn't be called anyway
+	}
+
+	protected void createHintUnits() {
+		// Only the first run of a unit publishes its hints to the HintDictionary; a rerun finds the hints of its first
+		// run again, which the master would then count as published twice but only see replicated once
+		boolean replicated = ConfigurationSingleton.get().isReplicatedHints();
+		for (Worker.HashMessage unit : createHintUnits(this.passwordChars, ConfigurationSingleton.get().getHintUnitSize()))
+			this.hintUnits.add(new Worker.HashMessage(unit.getUnit(), unit.getCharacter(), unit.getPrefix(), 0, replicated));
+		this.numHintUnits = this.hintUnits.size();
+	}
+	
+	protected boolean recheck(RunningTask unit) {
+		// Only digests of later batches that are still unresolved can be hints that the unit missed; the unit is
+		// then run again under a new number, so that late results of its first run cannot complete the new run
+		for (List<byte[]> digests : this.batchDigests.tailMap(unit.hintsVersion, false).values()) {
+			for (byte[] digest : digests) {
+				if (this.allHints.get(digest) == null) {
+					Worker.HashMessage hintUnit = (Worker.HashMessage) unit.task;
+					this.log().debug("Hint unit {} missed digests of later batches and runs again as unit {}", hintUnit.getUnit(), this.numHintUnits);
+					this.hintUnits.add(new Worker.HashMessage(this.numHintUnits++, hintUnit.getCharacter(), hintUnit.getPrefix(), 0, false));
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	protected void forgetCheckedBatches() {
+		// The digests of a batch are only needed while a unit that has not checked them may miss them
+		long oldest = Long.MAX_VALUE;
+		for (RunningTask unit : this.staleHintUnits)
+			oldest = Math.min(oldest, unit.hintsVersion);
+		for (RunningTask unit : this.runningHintUnits.values())
+			oldest = Math.min(oldest, unit.hintsVersion);
+		this.batchDigests.headMap(oldest, true).clear();
+	}
+	
+	protected static List<Worker.HashMessage> createHintUnits(List<String> passwordChars, int hintUnitSize) {
+		// Cut the permutation space of each missing character into units of at most hintUnitSize permutations
+		// by fixing as many leading characters as needed
+		int numSymbols = passwordChars.size() - 1;
+		int prefixLength = 0;
+		while (prefixLength < numSymbols && factorial(numSymbols - prefixLength) > hintUnitSize)
+			prefixLength++;
+		
+		List<Worker.HashMessage> units = new ArrayList<Worker.HashMessage>();
+		for (String missing : passwordChars) {
+			List<String> symbols = new ArrayList<String>(passwordChars);
+			symbols.remove(missing);
+			createHintUnits(units, missing, "", symbols, prefixLength);
+		}
+		return units;
+	}
+	
+	private static void createHintUnits(List<Worker.HashMessage> units, String missing, String prefix, List<String> symbols, int prefixLength) {
+		if (prefix.length() == prefixLength) {
+			units.add(new Worker.HashMessage(units.size(), missing, prefix, 0, false));
+			return;
+		}
+		for (String symbol : symbols) {
+			List<String> remaining = new ArrayList<String>(symbols);
+			remaining.remove(symbol);
+			createHintUnits(units, missing, prefix + symbol, remaining, prefixLength);
+		}
+	}
+	
+	private static long factorial(int n) {
+		long result = 1;
+		for (int i = 2; i <= n; i++)
+			result *= i;
+		return result;
 	}
 	
 	protected void handle(HintMessage message) {
+		this.hintsShipper.update(this.sender(), message.getHintsVersion());
+		RunningTask unit = this.runningHintUnits.remove(message.getUnit());
+		if (unit != null) {
+			this.complete(unit);
+			// Only the first result of a unit counts, because its speculative duplicates publish the same hints
+			this.numPublishedHints += message.getNumReplicated();
+		}
+		
 		Hashtable<String,String> hintsCracks = message.getCrackedHints();
+		if (!hintsCracks.isEmpty())
+			this.journaler.tell(new Journaler.HintsMessage(hintsCracks), this.self());
 		for (String key : hintsCracks.keySet()) {
-			this.crackedHints.put(key, hintsCracks.get(key));
+			byte[] digest = HashEngine.fromHex(key);
+			if (this.allHints.get(digest) == null)
+				this.hintsShipper.append(digest, hintsCracks.get(key));
+			this.allHints.put(digest, hintsCracks.get(key));
+			this.resolved(key);
+		}
+		if (unit != null) {
+			// Batches that arrived after the unit was handed out, or that are still to come, add digests that it did not check
+			if (!this.dataLoaded)
+				this.staleHintUnits.add(unit);
+			else if (!this.recheck(unit) && ConfigurationSingleton.get().isFollowDataset())
+				this.staleHintUnits.add(unit);
+			if (this.dataLoaded)
+				this.forgetCheckedBatches();
 		}
+		if (this.hintUnitsDone())
+			this.releaseAll();
 		
-		this.freeWorkers.add(this.sender());
 		this.distribute();
 	}
 	
+	protected void handle(Replicator.Changed<?> message) {
+		if (!HintDictionary.isChange(message) || (this.allHints == null))
+			return;
+		
+		// The replicas on all nodes receive the same hints, so they are not shipped but only resolved here
+		Hashtable<String, String> hintsCracks = new Hashtable<String, String>();
+		int numReplicated = this.numReplicatedHints;
+		for (Map.Entry<String, String> hint : HintDictionary.added(message, this.seenReplicatedHints).entrySet()) {
+			byte[] digest = HashEngine.fromHex(hint.getKey());
+			if (!this.allHints.contains(digest))
+				continue;
+			// A published hint counts even if the result of a rerun of its unit has resolved it before it arrived
+			this.numReplicatedHints++;
+			if (this.allHints.get(digest) != null)
+				continue;
+			
+			this.allHints.put(digest, hint.getValue());
+			hintsCracks.put(hint.getKey(), hint.getValue());
+			this.resolved(hint.getKey());
+		}
+		if (this.numReplicatedHints == numReplicated)
+			return;
+		
+		if (!hintsCracks.isEmpty())
+			this.journaler.tell(new Journaler.HintsMessage(hintsCracks), this.self());
+		if (this.hintUnitsDone())
+			this.releaseAll();
+		
+		this.distribute();
+	}
+	
+	// The hints are complete once the dataset is loaded, all hint units are done and all hints that they published
+	// have been replicated here
+	protected boolean hintUnitsDone() {
+		return this.dataLoaded && this.hintUnits.isEmpty() && this.runningHintUnits.isEmpty() && (this.numReplicatedHints >= this.numPublishedHints);
+	}
+	
 	// Receive result from a worker, and give it a new task if there are some left
 	protected void handle(ResultMessage message) {
-		String name = message.getResult()[0];
-		String password = message.getResult()[1];
-		collector.tell(new Collector.CollectMessage(password), this.self());
+		// Only the first result of a range counts; later ones come from its speculative duplicates or from finished jobs
+		PasswordJob job = this.passwordJobs.get(message.getId());
+		RunningTask range = (job == null) ? null : job.ranges.remove(message.getStart());
+		if (range != null) {
+			this.complete(range);
+			job.searched += message.getEnd() - message.getStart();
+			
+			if (message.getPassword() != null) {
+				// Stop handing out ranges of this job and cancel all ranges that are still being searched
+				job.password = message.getPassword();
+				this.openPasswordJobs.remove(job);
+				this.finish(job);
+			} else if ((job.next >= job.size) && job.ranges.isEmpty()) {
+				this.finish(job);
+			} else {
+				// Stop the duplicates of the range unless their workers search further ranges of the job, which a
+				// cancellation would stop as well
+				for (ActorRef worker : range.workers)
+					if (!worker.equals(this.sender()) && !this.searches(worker, job))
+						worker.tell(new Worker.CancelMessage(job.getId()), this.self());
+			}
+		}
 		
-		this.freeWorkers.add(this.sender());
+		this.distribute();
+	}
+	
+	protected boolean searches(ActorRef worker, PasswordJob job) {
+		for (RunningTask task : this.runningTasks.getOrDefault(worker, new ArrayList<RunningTask>()))
+			if ((task.task instanceof Worker.TaskMessage) && ((Worker.TaskMessage) task.task).getId() == job.getId())
+				return true;
+		return false;
+	}
+	
+	protected void distribute() {
+		this.assign();
 		
-		if (this.toCrack.isEmpty() && this.freeWorkers.size() == this.workers.size()) {
+		// Hint units that are still running are not awaited once no user waits for hints anymore; a followed dataset
+		// is never done
+		if (this.dataLoaded && !ConfigurationSingleton.get().isFollowDataset() && this.toCrack.isEmpty() && this.numWaitingUsers == 0 && this.passwordJobs.isEmpty()) {
 			this.terminate();
 		}
-		this.distribute();
 	}
 	
 	protected void terminate() {
+		// Late results of abandoned hint units and of speculative duplicates can meet the end condition again
+		if (this.terminated)
+			return;
+		this.terminated = true;
+		
 		this.reader.tell(PoisonPill.getInstance(), ActorRef.noSender());
 		this.collector.tell(new Collector.PrintMessage(), this.self());
 		this.collector.tell(PoisonPill.getInstance(), ActorRef.noSender());
+		this.journaler.tell(new Journaler.CompactMessage(), this.self());
+		this.journaler.tell(PoisonPill.getInstance(), ActorRef.noSender());
 		
 		for (ActorRef worker : this.workers) {
 			this.context().unwatch(worker);
@@ -254,18 +875,59 @@ public class Master extends AbstractLoggingActor {
 		
 		long executionTime = System.currentTimeMillis() - this.startTime;
 		this.log().info("Algorithm finished in {} ms", executionTime);
+		this.log().info("{}", this.workerMetrics.total());
 	}
 
 	protected void handle(RegistrationMessage message) {
+		this.hintsShipper.update(this.sender(), message.getHintsVersion());
 		this.context().watch(this.sender());
 		this.workers.add(this.sender());
-		this.freeWorkers.add(this.sender());
+		this.runningTasks.put(this.sender(), new ArrayList<RunningTask>());
 		this.distribute();
 	}
 	
+	protected void handle(WorkRequestMessage message) {
+		// Requests do not finish any work, so they can only lead to new assignments but never to termination
+		this.requestedTasks.merge(this.sender(), message.getNumTasks(), Integer::sum);
+		this.assign();
+	}
+	
+	protected void handle(SpeculationMessage message) {
+		this.assign();
+	}
+	
+	protected void handle(MetricsMessage message) {
+		this.workerMetrics.record(this.sender(), message);
+	}
+	
+	protected void handle(SummaryMessage message) {
+		this.workerMetrics.publish(this.log(), this.context().system().eventStream());
+	}
+	
 	protected void handle(Terminated message) {
+		// The hints might have been shipped to the terminated worker before it applied them, so ship them again
+		this.hintsShipper.forget(message.getActor());
+		
 		this.context().unwatch(message.getActor());
 		this.workers.remove(message.getActor());
-		this.freeWorkers.remove(message.getActor());
+		this.requestedTasks.remove(message.getActor());
+		this.orphan(message.getActor());
+		this.assign();
+	}
+	
+	protected void handle(ClusterEvent.UnreachableMember message) {
+		// The node's workers may come back, so they stay registered, but their tasks are handed out again right away;
+		// results that arrive from them later still count unless another copy of the task was faster
+		Address node = message.member().address();
+		this.unreachableNodes.add(node);
+		for (ActorRef worker : this.workers)
+			if (worker.path().address().equals(node))
+				this.orphan(worker);
+		this.assign();
+	}
+	
+	protected void handle(ClusterEvent.ReachableMember message) {
+		this.unreachableNodes.remove(message.member().address());
+		this.assign();
 	}
 }
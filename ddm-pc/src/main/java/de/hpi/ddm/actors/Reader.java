@@ -1,16 +1,27 @@
 package de.hpi.ddm.actors;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import com.opencsv.CSVReader;
 
 import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
+import akka.japi.Pair;
 import de.hpi.ddm.configuration.ConfigurationSingleton;
 import de.hpi.ddm.configuration.DatasetDescriptorSingleton;
+import de.hpi.ddm.structures.MappedCSVReader;
+import de.hpi.ddm.structures.TailingCSVReader;
 import lombok.Data;
+import scala.concurrent.duration.FiniteDuration;
 
 public class Reader extends AbstractLoggingActor {
 
@@ -33,16 +44,31 @@ public class Reader extends AbstractLoggingActor {
 		private static final long serialVersionUID = -3254147511955012292L;
 	}
 	
+	@Data
+	public static class WatchMessage implements Serializable {
+		private static final long serialVersionUID = 2935741840328155217L;
+	}
+	
 	/////////////////
 	// Actor State //
 	/////////////////
 	
-	private CSVReader reader;
+	private Closeable reader;
+	
+	private Iterator<String[]> records;
 	
 	private int bufferSize;
 	
 	private List<String[]> buffer;
 	
+	private TailingCSVReader tail;		// The followed dataset or null if the dataset is read only once
+	
+	private boolean caughtUp;			// True once the master received a batch that is empty because the followed dataset has not grown yet
+	
+	private ActorRef requester;			// The master that waits for a batch until the followed dataset grows
+	
+	private Cancellable watching;
+	
 	/////////////////////
 	// Actor Lifecycle //
 	/////////////////////
@@ -51,15 +77,45 @@ public class Reader extends AbstractLoggingActor {
 	public void preStart() throws Exception {
 		Reaper.watchWithDefaultReaper(this);
 		
-		this.reader = DatasetDescriptorSingleton.get().createCSVReader();
+		// Parse the chunks of a memory-mapped dataset on the compute pool, which is otherwise idle until the data are loaded
+		Pair<Closeable, Iterator<String[]>> dataset = open(this.context().system().dispatchers().lookup(Worker.CRACKING_DISPATCHER));
+		this.reader = dataset.first();
+		this.records = dataset.second();
 		this.bufferSize = ConfigurationSingleton.get().getBufferSize();
 		this.buffer = new ArrayList<>(this.bufferSize);
 		
+		if (dataset.first() instanceof TailingCSVReader) {
+			this.tail = (TailingCSVReader) dataset.first();
+			FiniteDuration interval = FiniteDuration.create(ConfigurationSingleton.get().getFollowPollInterval(), TimeUnit.MILLISECONDS);
+			this.watching = this.context().system().scheduler().schedule(interval, interval, this.self(), new WatchMessage(), this.context().dispatcher(), ActorRef.noSender());
+		}
+		
 		this.read();
 	}
 
+	/**
+	 * Open the configured dataset, either followed as it grows, memory-mapped or line by line through opencsv.
+	 * @param parsePool the executor that parses the chunks of a memory-mapped dataset
+	 * @return the dataset's reader, which must be closed after reading, and its records
+	 * @throws IOException if the dataset cannot be opened
+	 */
+	public static Pair<Closeable, Iterator<String[]>> open(Executor parsePool) throws IOException {
+		if (ConfigurationSingleton.get().isFollowDataset()) {
+			TailingCSVReader reader = DatasetDescriptorSingleton.get().createTailingCSVReader();
+			return new Pair<>(reader, reader);
+		}
+		if (ConfigurationSingleton.get().isMappedReading()) {
+			MappedCSVReader reader = DatasetDescriptorSingleton.get().createMappedCSVReader(parsePool, ConfigurationSingleton.get().getNumComputeThreads());
+			return new Pair<>(reader, reader);
+		}
+		CSVReader reader = DatasetDescriptorSingleton.get().createCSVReader();
+		return new Pair<>(reader, reader.iterator());
+	}
+
 	@Override
 	public void postStop() throws Exception {
+		if (this.watching != null)
+			this.watching.cancel();
 		this.reader.close();
 	}
 
@@ -71,12 +127,37 @@ public class Reader extends AbstractLoggingActor {
 	public Receive createReceive() {
 		return receiveBuilder()
 				.match(ReadMessage.class, this::handle)
+				.match(WatchMessage.class, this::handle)
 				.matchAny(object -> this.log().info("Received unknown message: \"{}\"", object.toString()))
 				.build();
 	}
 
 	private void handle(ReadMessage message) throws Exception {
-		this.sender().tell(new Master.BatchMessage(new ArrayList<>(this.buffer)), this.self());
+		if (this.caughtUp && this.buffer.isEmpty()) {
+			// The master already knows that the followed dataset holds no further records, so it is answered once it grows
+			this.requester = this.sender();
+			return;
+		}
+		this.send(this.sender());
+	}
+	
+	private void handle(WatchMessage message) throws Exception {
+		if ((this.requester == null) || !this.tail.changed())
+			return;
+		
+		this.read();
+		if (this.buffer.isEmpty())
+			return;
+		this.send(this.requester);
+		this.requester = null;
+	}
+	
+	private void send(ActorRef master) throws Exception {
+		// An empty batch ends the dataset or, if it is followed, tells the master that all records so far are read
+		master.tell(new Master.BatchMessage(new ArrayList<>(this.buffer)), this.self());
+		this.caughtUp = (this.tail != null) && this.buffer.isEmpty();
+		if (this.caughtUp)
+			this.log().info("Read all records of the followed dataset, waiting for appended ones");
 		
 		this.read();
 	}
@@ -84,8 +165,7 @@ public class Reader extends AbstractLoggingActor {
 	private void read() throws Exception {
 		this.buffer.clear();
 		
-		String[] line;
-		while ((this.buffer.size() < this.bufferSize) && ((line = this.reader.readNext()) != null))
-			this.buffer.add(line);
+		while ((this.buffer.size() < this.bufferSize) && this.records.hasNext())
+			this.buffer.add(this.records.next());
 	}
 }
@@ -0,0 +1,594 @@
+package de.hpi.ddm.actors;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import akka.Done;
+import akka.NotUsed;
+import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.actor.Status;
+import akka.actor.Terminated;
+import akka.cluster.Cluster;
+import akka.event.LoggingAdapter;
+import akka.japi.Pair;
+import akka.pattern.Patterns;
+import akka.stream.ActorMaterializer;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import de.hpi.ddm.configuration.Configuration;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.CombinationGenerator;
+import de.hpi.ddm.structures.DigestIndex;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.Journal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+public class StreamMaster extends AbstractLoggingActor {
+
+	////////////////////////
+	// Actor Construction //
+	////////////////////////
+
+	// The time that the stream waits for a task's result, including the time that the task waits for a free worker
+	private static final Duration TASK_TIMEOUT = Duration.ofHours(1);
+
+	// The stream master is started with the name Master.DEFAULT_NAME, so that the workers register with it as with the Master
+	public static Props props(final ActorRef collector, final ActorRef journaler, final Journal.Checkpoint checkpoint) {
+		return Props.create(StreamMaster.class, () -> new StreamMaster(collector, journaler, checkpoint));
+	}
+
+	public StreamMaster(final ActorRef collector, final ActorRef journaler, final Journal.Checkpoint checkpoint) {
+		this.collector = collector;
+		this.journaler = journaler;
+		this.checkpoint = checkpoint;
+		this.workers = new ArrayList<>();
+		this.requestedTasks = new HashMap<>();
+		this.dispatches = new ArrayDeque<>();
+		this.allHints = new DigestIndex();
+		this.hintsShipper = new HintsShipper();
+		this.workerMetrics = new WorkerMetrics(Cluster.get(this.context().system()).selfAddress());
+		this.materializer = ActorMaterializer.create(this.context());
+	}
+
+	////////////////////
+	// Actor Messages //
+	////////////////////
+
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class LoadMessage implements Serializable {
+		private static final long serialVersionUID = 5182273453340181826L;
+		private List<String[]> lines;
+	}
+
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class DispatchMessage implements Serializable {
+		private static final long serialVersionUID = -1690932519612402875L;
+		private Serializable task;	// The Worker.HashMessage or Worker.TaskMessage whose result a worker should send to the sender
+	}
+
+	// A user of the stream's dataset together with the state of its hints and of its password search
+	private static class User {
+		private final String[] line;
+		private int unresolvedHints;
+		private boolean released = false;
+		private long size;				// The number of password candidates
+		private long searched = 0;		// The number of candidates that have been searched
+		private String password = null;
+		private boolean finished = false;
+
+		private User(String[] line) {
+			this.line = line;
+			this.unresolvedHints = line.length - 5;
+		}
+
+		private int getId() {
+			return Integer.parseInt(this.line[0]);
+		}
+	}
+
+	// The users of a stream run, which the loading, hint and password stages share, so all access is synchronized
+	private static class Users {
+		private final Journal.Checkpoint checkpoint;
+		private final ActorRef master;
+		private final ActorRef collector;
+		private final ActorRef journaler;
+		private final LoggingAdapter log;
+		private final Map<Integer, User> users = new LinkedHashMap<>();		// All users in file order by ID
+		private final DigestIndex hints = new DigestIndex();				// All hint digests and, once cracked, their plaintexts
+		private final Map<String, List<User>> waiting = new HashMap<>();	// The unreleased users by their unresolved hint digests
+		private final NavigableMap<Long, List<byte[]>> batchDigests = new TreeMap<>();	// The new hint digests of each batch by the hints version that contains them
+		private final List<Pair<Worker.HashMessage, Long>> checked = new ArrayList<>();	// The finished hint units with the hints version that they were checked against
+		private int numWaiting = 0;
+		private int numFinished = 0;
+		private int numResumed = 0;
+		private boolean loaded = false;
+
+		private Users(Journal.Checkpoint checkpoint, ActorRef master, ActorRef collector, ActorRef journaler, LoggingAdapter log) {
+			this.checkpoint = checkpoint;
+			this.master = master;
+			this.collector = collector;
+			this.journaler = journaler;
+			this.log = log;
+		}
+
+		// Add a batch of the dataset and release its users that can be searched before any further hint is cracked
+		private synchronized List<User> add(List<String[]> lines, long hintsVersion) {
+			this.collector.tell(new Collector.ExpectMessage(lines.stream().mapToInt(line -> Integer.parseInt(line[0])).toArray(), false), ActorRef.noSender());
+			List<User> ready = new ArrayList<>();
+			List<byte[]> digests = new ArrayList<>();
+			for (String[] line : lines) {
+				User user = new User(line);
+				this.users.put(user.getId(), user);
+				this.numWaiting++;
+
+				// A user whose password a previous run has collected is done, and a hint that it has cracked is resolved
+				String password = this.checkpoint.getPasswords().get(HashEngine.fromHex(line[4]));
+				if (password != null) {
+					this.release(user);
+					user.finished = true;
+					this.numFinished++;
+					this.numResumed++;
+					this.collector.tell(new Collector.CollectMessage(user.getId(), password), ActorRef.noSender());
+					continue;
+				}
+				for (int ii = 5; ii < line.length; ii++) {
+					byte[] digest = HashEngine.fromHex(line[ii]);
+					String plaintext = this.checkpoint.getHints().get(digest);
+					if (plaintext != null)
+						this.hints.put(digest, plaintext);
+					else if (this.hints.add(digest))
+						digests.add(digest);
+
+					if (this.hints.get(digest) != null)
+						user.unresolvedHints--;
+					else
+						this.waiting.computeIfAbsent(HashEngine.toHex(digest), hint -> new ArrayList<User>()).add(user);
+				}
+				if (this.isReady(user))
+					ready.add(this.release(user));
+			}
+			// A batch without new digests keeps the hints version of the previous batch and must not replace its digests
+			if (!digests.isEmpty())
+				this.batchDigests.put(hintsVersion, digests);
+			return ready;
+		}
+
+		// The whole dataset is loaded, so the collector learns that no further users follow
+		private synchronized void loaded() {
+			this.loaded = true;
+			this.collector.tell(new Collector.ExpectMessage(new int[0], true), ActorRef.noSender());
+			if (this.numResumed > 0)
+				this.log.info("Resumed {} of {} users from the journal", this.numResumed, this.users.size());
+		}
+
+		// Hint units are needed while users wait for their hints or further users may still be loaded
+		private synchronized boolean isWaiting() {
+			return (this.numWaiting > 0) || !this.loaded;
+		}
+
+		// The hint units that finished before later batches added digests are run again, as new units, if any of those
+		// digests is still unresolved
+		private synchronized List<Worker.HashMessage> reruns(int numUnits) {
+			List<Worker.HashMessage> reruns = new ArrayList<>();
+			for (Pair<Worker.HashMessage, Long> unit : this.checked)
+				if (this.missed(unit.second()))
+					reruns.add(new Worker.HashMessage(numUnits + reruns.size(), unit.first().getCharacter(), unit.first().getPrefix(), 0, false));
+			this.checked.clear();
+			this.batchDigests.clear();
+			return reruns;
+		}
+
+		private boolean missed(long hintsVersion) {
+			for (List<byte[]> digests : this.batchDigests.tailMap(hintsVersion, false).values())
+				for (byte[] digest : digests)
+					if (this.hints.get(digest) == null)
+						return true;
+			return false;
+		}
+
+		// Record the cracked hints and release the users that they unlock
+		private synchronized List<User> crack(Worker.HashMessage unit, Master.HintMessage message) {
+			this.checked.add(new Pair<>(unit, message.getHintsVersion()));
+			List<User> ready = new ArrayList<>();
+			for (Map.Entry<String, String> hint : message.getCrackedHints().entrySet()) {
+				this.hints.put(HashEngine.fromHex(hint.getKey()), hint.getValue());
+				List<User> users = this.waiting.remove(hint.getKey());
+				if (users == null)
+					continue;
+				for (User user : users) {
+					user.unresolvedHints--;
+					if (this.isReady(user))
+						ready.add(this.release(user));
+				}
+			}
+			return ready;
+		}
+
+		// All hint tasks are done, so hints that are still unresolved are no permutations and cannot be cracked at all
+		private synchronized List<User> rest() {
+			List<User> rest = new ArrayList<>();
+			for (User user : this.users.values())
+				if (!user.released)
+					rest.add(this.release(user));
+			this.waiting.clear();
+			return rest;
+		}
+
+		private boolean isReady(User user) {
+			// A user is ready once all its hints are cracked or the remaining password space is small enough to be searched anyway
+			if (user.released)
+				return false;
+			if (user.unresolvedHints == 0)
+				return true;
+			int numLetters = Master.passwordLetters(user.line, this.hints).length();
+			int passwordLength = Integer.parseInt(user.line[3]);
+			return Math.pow(numLetters, passwordLength) <= ConfigurationSingleton.get().getPasswordSpaceThreshold();
+		}
+
+		private User release(User user) {
+			user.released = true;
+			this.numWaiting--;
+			return user;
+		}
+
+		// Cut the user's password space into ranges of at most passwordUnitSize candidates; the ranges are created on
+		// demand and stop once the password is found, so a found password cancels all ranges that are not yet dispatched
+		private synchronized Iterable<Worker.TaskMessage> tasks(User user) {
+			String letters = Master.passwordLetters(user.line, this.hints);
+			int passwordLength = Integer.parseInt(user.line[3]);
+			try {
+				user.size = CombinationGenerator.size(letters.length(), passwordLength);
+			} catch (ArithmeticException e) {
+				this.log.error("Password space of user {} with letters {} is too large to be searched.", user.line[0], letters);
+				user.size = 0;
+			}
+
+			// An empty range finishes the user without occupying a worker
+			final byte[] passwordHash = HashEngine.fromHex(user.line[4]);
+			final byte[] letterBytes = HashEngine.toBytes(letters);
+			if (user.size == 0)
+				return Collections.singletonList(new Worker.TaskMessage(user.getId(), passwordHash, passwordLength, letterBytes, 0, 0));
+
+			final long unitSize = ConfigurationSingleton.get().getPasswordUnitSize();
+			return () -> new Iterator<Worker.TaskMessage>() {
+				private long next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return (this.next < user.size) && !Users.this.isFinished(user);
+				}
+
+				@Override
+				public Worker.TaskMessage next() {
+					long start = this.next;
+					this.next = Math.min(user.size, start + unitSize);
+					return new Worker.TaskMessage(user.getId(), passwordHash, passwordLength, letterBytes, start, this.next);
+				}
+			};
+		}
+
+		private synchronized boolean isFinished(User user) {
+			return user.finished;
+		}
+
+		private synchronized boolean isSkipped(Worker.TaskMessage task) {
+			return (task.getStart() >= task.getEnd()) || this.users.get(task.getId()).finished;
+		}
+
+		// Account for a searched range and emit the user's password once its search is over
+		private synchronized List<Collector.CollectMessage> searched(Master.ResultMessage result) {
+			User user = this.users.get(result.getId());
+			if (user.finished)
+				return Collections.emptyList();
+
+			user.searched += result.getEnd() - result.getStart();
+			if (result.getPassword() != null) {
+				// Cancel the ranges that the workers are still searching
+				user.password = result.getPassword();
+				this.master.tell(new Worker.CancelMessage(user.getId()), ActorRef.noSender());
+			} else if (user.searched < user.size) {
+				return Collections.emptyList();
+			}
+
+			user.finished = true;
+			this.numFinished++;
+			String password = (user.password != null) ? user.password : "randomPassword";
+			if (user.password != null)
+				this.journaler.tell(new Journaler.PasswordMessage(user.line[4], password), ActorRef.noSender());
+			this.log.debug("Searched {} of {} password candidates of user {}", user.searched, user.size, user.line[0]);
+			this.log.info("Password of user {} is {} ({} of {} users done)", user.line[0], password, this.numFinished, this.users.size());
+			return Collections.singletonList(new Collector.CollectMessage(user.getId(), password));
+		}
+	}
+
+	/////////////////
+	// Actor State //
+	/////////////////
+
+	private final ActorRef collector;
+	private final ActorRef journaler;
+	private final Journal.Checkpoint checkpoint;					// The hints and passwords that a previous run of the job has journaled
+	private final List<ActorRef> workers;
+	private final Map<ActorRef, Integer> requestedTasks;		// The number of tasks that each worker has requested but not yet received
+	private final Deque<Pair<Serializable, ActorRef>> dispatches;	// The tasks that wait for a worker together with the stream stages that await their results
+	private int nextWorker;										// The worker that is asked first for the next task, which spreads the tasks round-robin
+	private final Materializer materializer;
+
+	private long startTime;
+	private final DigestIndex allHints;		// All hint digests and, once cracked, their plaintexts
+	private final HintsShipper hintsShipper;	// Ships the hints log to the workers' HintIndexes
+	private String passwordChars = "";
+	private final WorkerMetrics workerMetrics;	// The hash rates and task latencies that the workers reported
+	private Cancellable summarizing;
+
+	/////////////////////
+	// Actor Lifecycle //
+	/////////////////////
+
+	@Override
+	public void preStart() {
+		Reaper.watchWithDefaultReaper(this);
+		this.summarizing = WorkerMetrics.schedule(this.context(), this.self());
+	}
+
+	@Override
+	public void postStop() {
+		if (this.summarizing != null)
+			this.summarizing.cancel();
+	}
+
+	////////////////////
+	// Actor Behavior //
+	////////////////////
+
+	@Override
+	public Receive createReceive() {
+		return receiveBuilder()
+				.match(Master.StartMessage.class, this::handle)
+				.match(LoadMessage.class, this::handle)
+				.match(DispatchMessage.class, this::handle)
+				.match(Master.HintMessage.class, this::handle)
+				.match(Worker.CancelMessage.class, this::handle)
+				.match(Master.RegistrationMessage.class, this::handle)
+				.match(Master.WorkRequestMessage.class, this::handle)
+				.match(Master.MetricsMessage.class, this::handle)
+				.match(Master.SummaryMessage.class, this::handle)
+				.match(Terminated.class, this::handle)
+				.match(Done.class, this::handle)
+				.match(Status.Failure.class, this::handle)
+				.matchAny(object -> this.log().info("Received unknown message: \"{}\"", object.toString()))
+				.build();
+	}
+
+	protected void handle(Master.StartMessage message) {
+		this.startTime = System.currentTimeMillis();
+
+		// The stream's stages must not touch the actor's state, so they talk to it through messages only
+		final Configuration c = ConfigurationSingleton.get();
+		final ActorRef self = this.self();
+		final ActorRef collector = this.collector;
+		final ActorRef journaler = this.journaler;
+		final Journal.Checkpoint checkpoint = this.checkpoint;
+		final LoggingAdapter log = this.log();
+		final Executor parsePool = this.context().system().dispatchers().lookup(Worker.CRACKING_DISPATCHER);
+
+		CompletionStage<Done> done = Source
+				.unfoldResource(
+						() -> Reader.open(parsePool),
+						dataset -> dataset.second().hasNext() ? Optional.of(dataset.second().next()) : Optional.<String[]>empty(),
+						dataset -> dataset.first().close())
+				// Register each batch's hint digests with the master, which ships them to the workers while reading continues
+				.grouped(c.getBufferSize())
+				.mapAsync(1, lines -> ask(self, new LoadMessage(new ArrayList<>(lines))).thenApply(version -> new Pair<List<String[]>, Long>(lines, (Long) version)))
+				// The first batch fixes the alphabet, so hint cracking starts with it while the rest of the dataset is read
+				.prefixAndTail(1)
+				.flatMapConcat(first -> {
+					List<Worker.HashMessage> hintUnits = first.first().isEmpty()
+							? Collections.<Worker.HashMessage>emptyList()
+							: Master.createHintUnits(Arrays.asList(first.first().get(0).first().get(0)[2].split("")), c.getHintUnitSize());
+					Users users = new Users(checkpoint, self, collector, journaler, log);
+					return crack(users, Source.from(first.first()).concat(first.second()), hintUnits, c.getStreamParallelism(), self);
+				})
+				.runWith(Sink.foreach(result -> collector.tell(result, self)), this.materializer);
+
+		Patterns.pipe(done, this.context().dispatcher()).to(self);
+	}
+
+	// Load the users and crack the hints and the passwords: every batch and every hint result release the users that
+	// can be searched now into the password stage, so password tasks run while further batches are read and further
+	// hint tasks are in flight; the password stage takes precedence, because loading and the hint stage only proceed
+	// while the password stage has room for the users that they release
+	private static Source<Collector.CollectMessage, NotUsed> crack(Users users, Source<Pair<List<String[]>, Long>, NotUsed> batches, List<Worker.HashMessage> hintUnits, int parallelism, ActorRef master) {
+		Source<User, NotUsed> loaded = batches
+				.mapConcat(batch -> users.add(batch.first(), batch.second()))
+				.watchTermination((notUsed, termination) -> {
+					termination.thenRun(users::loaded);
+					return notUsed;
+				});
+		// Units that finish before later batches arrive miss their digests, so they run again once the dataset is loaded
+		Source<User, NotUsed> rerun = Source.single(users)
+				.mapConcat(all -> all.reruns(hintUnits.size()))
+				.via(hints(users, parallelism, master));
+		Source<User, NotUsed> rest = Source.single(users).mapConcat(Users::rest);
+
+		// Concatenating the phases through flatMapConcat starts each phase only once the previous one has completed
+		return Source.from(Arrays.asList(loaded.merge(Source.from(hintUnits).via(hints(users, parallelism, master))), rerun, rest))
+				.flatMapConcat(phase -> phase)
+				.mapConcat(users::tasks)
+				.mapAsyncUnordered(parallelism, task -> users.isSkipped(task)
+						? CompletableFuture.<Object>completedFuture(new Master.ResultMessage(task.getId(), null, task.getStart(), task.getEnd()))
+						: ask(master, new DispatchMessage(task)))
+				.mapConcat(result -> users.searched((Master.ResultMessage) result));
+	}
+
+	private static Flow<Worker.HashMessage, User, NotUsed> hints(Users users, int parallelism, ActorRef master) {
+		return Flow.<Worker.HashMessage>create()
+				.filter(unit -> users.isWaiting())
+				.mapAsyncUnordered(parallelism, unit -> ask(master, new DispatchMessage(unit)).thenApply(result -> new Pair<>(unit, (Master.HintMessage) result)))
+				.mapConcat(result -> {
+					master.tell(result.second(), ActorRef.noSender());
+					return users.crack(result.first(), result.second());
+				});
+	}
+
+	private static CompletionStage<Object> ask(ActorRef master, Serializable message) {
+		return Patterns.ask(master, message, TASK_TIMEOUT);
+	}
+
+	protected void handle(LoadMessage message) {
+		for (String[] line : message.getLines()) {
+			for (int ii = 5; ii < line.length; ii++) {
+				byte[] digest = HashEngine.fromHex(line[ii]);
+				if (this.allHints.add(digest)) {
+					String plaintext = this.checkpoint.getHints().get(digest);
+					if (plaintext != null)
+						this.allHints.put(digest, plaintext);
+					this.hintsShipper.append(digest, plaintext);
+				}
+			}
+		}
+		if (this.passwordChars.isEmpty() && !message.getLines().isEmpty())
+			this.passwordChars = message.getLines().get(0)[2];
+
+		// Ship the new digests to every node right away, so that the workers index them while the file is still being read
+		for (ActorRef worker : this.workers)
+			this.hintsShipper.ship(worker, this.self());
+
+		// The hints version that contains the batch's digests tells which hint units have not checked them
+		this.sender().tell(this.hintsShipper.version(), this.self());
+	}
+
+	protected void handle(DispatchMessage message) {
+		this.dispatches.add(new Pair<>(message.getTask(), this.sender()));
+		this.assign();
+	}
+
+	protected void assign() {
+		// Hand the queued tasks to the workers' requests; each worker sends its result directly to the awaiting stage
+		while (!this.dispatches.isEmpty()) {
+			ActorRef worker = this.nextRequestingWorker();
+			if (worker == null)
+				return;
+
+			Pair<Serializable, ActorRef> dispatch = this.dispatches.poll();
+			this.requestedTasks.merge(worker, -1, Integer::sum);
+			Serializable task = dispatch.first();
+			if (task instanceof Worker.HashMessage) {
+				Worker.HashMessage hintUnit = (Worker.HashMessage) task;
+				this.hintsShipper.ship(worker, this.self());
+				worker.tell(new Worker.PasswordCharsMessage(this.passwordChars), this.self());
+				task = new Worker.HashMessage(hintUnit.getUnit(), hintUnit.getCharacter(), hintUnit.getPrefix(), this.hintsShipper.version(), false);
+			}
+			worker.tell(task, dispatch.second());
+		}
+	}
+
+	protected ActorRef nextRequestingWorker() {
+		for (int i = 0; i < this.workers.size(); i++) {
+			ActorRef worker = this.workers.get((this.nextWorker + i) % this.workers.size());
+			if (this.requestedTasks.getOrDefault(worker, 0) > 0) {
+				this.nextWorker = (this.nextWorker + i + 1) % this.workers.size();
+				return worker;
+			}
+		}
+		return null;
+	}
+
+	protected void handle(Master.HintMessage message) {
+		// The hint stage reports the cracked hints, so that later deltas tell the workers which hints need not be reported again
+		if (!message.getCrackedHints().isEmpty())
+			this.journaler.tell(new Journaler.HintsMessage(message.getCrackedHints()), this.self());
+		for (Map.Entry<String, String> hint : message.getCrackedHints().entrySet()) {
+			byte[] digest = HashEngine.fromHex(hint.getKey());
+			if (this.allHints.get(digest) == null) {
+				this.allHints.put(digest, hint.getValue());
+				this.hintsShipper.append(digest, hint.getValue());
+			}
+		}
+	}
+
+	protected void handle(Worker.CancelMessage message) {
+		// The password stage does not know which workers search the user's ranges, so all workers are told
+		for (ActorRef worker : this.workers)
+			worker.tell(message, this.self());
+	}
+
+	protected void handle(Master.RegistrationMessage message) {
+		this.hintsShipper.update(this.sender(), message.getHintsVersion());
+		this.context().watch(this.sender());
+		this.workers.add(this.sender());
+		this.assign();
+	}
+
+	protected void handle(Master.WorkRequestMessage message) {
+		this.requestedTasks.merge(this.sender(), message.getNumTasks(), Integer::sum);
+		this.assign();
+	}
+
+	protected void handle(Master.MetricsMessage message) {
+		this.workerMetrics.record(this.sender(), message);
+	}
+
+	protected void handle(Master.SummaryMessage message) {
+		this.workerMetrics.publish(this.log(), this.context().system().eventStream());
+	}
+
+	protected void handle(Terminated message) {
+		// The results of the terminated worker's tasks never arrive, so the stream fails once they time out
+		this.hintsShipper.forget(message.getActor());
+		this.context().unwatch(message.getActor());
+		this.workers.remove(message.getActor());
+		this.requestedTasks.remove(message.getActor());
+	}
+
+	protected void handle(Done message) {
+		this.terminate();
+	}
+
+	protected void handle(Status.Failure message) {
+		this.log().error(message.cause(), "The stream failed");
+		this.terminate();
+	}
+
+	protected void terminate() {
+		this.collector.tell(new Collector.PrintMessage(), this.self());
+		this.collector.tell(PoisonPill.getInstance(), ActorRef.noSender());
+		this.journaler.tell(new Journaler.CompactMessage(), this.self());
+		this.journaler.tell(PoisonPill.getInstance(), ActorRef.noSender());
+
+		for (ActorRef worker : this.workers) {
+			this.context().unwatch(worker);
+			worker.tell(PoisonPill.getInstance(), ActorRef.noSender());
+		}
+
+		this.self().tell(PoisonPill.getInstance(), ActorRef.noSender());
+
+		long executionTime = System.currentTimeMillis() - this.startTime;
+		this.log().info("Algorithm finished in {} ms", executionTime);
+		this.log().info("{}", this.workerMetrics.total());
+	}
+}
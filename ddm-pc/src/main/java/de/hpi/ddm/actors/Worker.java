@@ -1,9 +1,7 @@
 package de.hpi.ddm.actors;
 
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -13,21 +11,45 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import akka.actor.AbstractLoggingActor;
 import akka.actor.ActorRef;
+import akka.actor.ActorSelection;
+import akka.actor.Cancellable;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
+import akka.actor.Status;
 import akka.cluster.Cluster;
 import akka.cluster.ClusterEvent.CurrentClusterState;
 import akka.cluster.ClusterEvent.MemberRemoved;
 import akka.cluster.ClusterEvent.MemberUp;
 import akka.cluster.Member;
 import akka.cluster.MemberStatus;
+import akka.japi.Pair;
 import de.hpi.ddm.MasterSystem;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.BatchHashEngine;
+import de.hpi.ddm.structures.BloomFilter;
+import de.hpi.ddm.structures.CombinationGenerator;
+import de.hpi.ddm.structures.DigestCache;
+import de.hpi.ddm.structures.DigestCacheLoader;
+import de.hpi.ddm.structures.DigestIndex;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.Histogram;
+import de.hpi.ddm.structures.HintIndex;
+import de.hpi.ddm.structures.PermutationGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import scala.concurrent.duration.FiniteDuration;
 
 public class Worker extends AbstractLoggingActor {
 
@@ -36,6 +58,7 @@ public class Worker extends AbstractLoggingActor {
 	////////////////////////
 	
 	public static final String DEFAULT_NAME = "worker";
+	public static final String CRACKING_DISPATCHER = "cracking-dispatcher";
 
 	public static Props props() {
 		return Props.create(Worker.class);
@@ -43,6 +66,10 @@ public class Worker extends AbstractLoggingActor {
 
 	public Worker() {
 		this.cluster = Cluster.get(this.context().system());
+		this.computePool = this.context().system().dispatchers().lookup(CRACKING_DISPATCHER);
+		this.numComputeThreads = ConfigurationSingleton.get().getNumComputeThreads();
+		this.numTasksInFlight = ConfigurationSingleton.get().getNumTasksInFlight();
+		this.hintIndex = HintIndex.get(this.context().system());
 	}
 	
 	////////////////////
@@ -52,14 +79,28 @@ public class Worker extends AbstractLoggingActor {
 	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class TaskMessage implements Serializable {
 		private static final long serialVersionUID = 8343040942748609598L;
-		private String[] line;
+		private int id;					// The ID of the user whose password is searched
+		private byte[] passwordHash;	// The 32 byte digest of the password
+		private int passwordLength;
+		private byte[] letters;			// The letters that the password can consist of; the candidate indexes refer to their order
+		private long start;				// The index of the first password candidate to try
+		private long end;				// The index after the last password candidate to try
+	}
+	
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class CancelMessage implements Serializable {
+		private static final long serialVersionUID = -2286520745718360121L;
+		private int id;			// The ID of the user whose password has been found
 	}
 	
 	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class HashMessage implements Serializable {
 		private static final long serialVersionUID = 6560207097470814017L;
-		private String character;
-		//private List<String> passwordChars;
+		private int unit;			// The number of this unit among the job's hint units
+		private String character;	// The password character that is missing in all permutations of this unit
+		private String prefix;		// The leading characters that all permutations of this unit share
+		private long hintsVersion;	// The version of the node's HintIndex that the unit must be checked against
+		private boolean replicated;	// Publish the cracked hints to the replicated HintDictionary instead of returning them
 	}
 	
 	@Data @NoArgsConstructor @AllArgsConstructor
@@ -72,25 +113,75 @@ public class Worker extends AbstractLoggingActor {
 	@Data @NoArgsConstructor @AllArgsConstructor
 	public static class HintsHashesMessage implements Serializable {
 		private static final long serialVersionUID = -7425329313563534330L;
-		private List<String> allHints;
+		private long from;				// The position of the first entry of this delta in the master's hint log
+		private long to;				// The position after the last entry of this delta in the master's hint log
+		private byte[] digests;			// The 32 byte hint digests of this delta back to back, without duplicates
+		private List<String> plaintexts;	// The plaintext of each hint or null if it is not (yet) cracked
+	}
+	
+	@Data
+	public static class ReportMessage implements Serializable {
+		private static final long serialVersionUID = 2093513400632148361L;
+	}
+	
+	@Data
+	public static class DigestCacheLoadedMessage implements Serializable {
+		private static final long serialVersionUID = -4017722658416263405L;
 	}
 
-	@Data @NoArgsConstructor @AllArgsConstructor
-	public static class CrackedHintsMessage implements Serializable {
-		private static final long serialVersionUID = -719107220168245254L;
-		private Hashtable<String,String> crackedHints;
+
+	// The cancellation flag of a user's password ranges, shared by all ranges of that user that this worker holds
+	private static class Cancellation {
+		private final AtomicBoolean cancelled = new AtomicBoolean(false);
+		private int numRanges = 0;
+	}
+
+	// The candidates that the hint search tested against the HintIndex's Bloom filter since the last report, those that
+	// passed it and had to probe the exact index and those that the index actually contained
+	private static class FilterCounters {
+		private final LongAdder probes = new LongAdder();
+		private final LongAdder passes = new LongAdder();
+		private final LongAdder hits = new LongAdder();
 	}
 
+	// The latencies of one task: the queue wait from its arrival until its first part runs on the compute pool and the
+	// service time from there until its last part finished
+	private class TaskTimer {
+		private final long received = System.nanoTime();
+		private final AtomicLong started = new AtomicLong(Long.MIN_VALUE);
+
+		private void start() {
+			this.started.compareAndSet(Long.MIN_VALUE, System.nanoTime());
+		}
+
+		private void finish() {
+			long start = (this.started.get() == Long.MIN_VALUE) ? this.received : this.started.get();
+			Worker.this.queueWaits.record((start - this.received) / 1000);
+			Worker.this.serviceTimes.record((System.nanoTime() - start) / 1000);
+		}
+	}
 
 	/////////////////
 	// Actor State //
 	/////////////////
 
 	private Member masterSystem;
+	private ActorSelection master;
 	private final Cluster cluster;
-	private HashSet<String> allHints;
-	private Hashtable<String,String> crackedHints;
+	private final Executor computePool;
+	private final int numComputeThreads;
+	private final int numTasksInFlight;
+	private final AtomicBoolean stopped = new AtomicBoolean(false); // Lets running computations end early once this worker stops
+	private final Map<Integer, Cancellation> cancellations = new ConcurrentHashMap<>(); // Lets running password tasks end early once their password was found elsewhere
+	private final HintIndex hintIndex; // The hint digests that all workers of this ActorSystem share
 	private List<String> passwordChars;
+	private List<Pair<HashMessage, ActorRef>> deferredHintUnits; // Hint units whose hints version is not yet published or whose digest cache is not yet loaded on this node
+	private CompletableFuture<DigestCache> digestCache; // The node's precomputed hint digests of the current alphabet, if caching is enabled
+	private final LongAdder hashes = new LongAdder(); // The candidates that the compute pool hashed since the last report
+	private final FilterCounters filterCounters = new FilterCounters();
+	private final Histogram serviceTimes = new Histogram(); // The microseconds that the tasks took since the last report
+	private final Histogram queueWaits = new Histogram(); // The microseconds that the tasks waited for the compute pool since the last report
+	private Cancellable reporting;
 	
 	/////////////////////
 	// Actor Lifecycle //
@@ -101,14 +192,24 @@ public class Worker extends AbstractLoggingActor {
 		Reaper.watchWithDefaultReaper(this);
 		
 		this.cluster.subscribe(this.self(), MemberUp.class, MemberRemoved.class);
-		this.allHints = new HashSet<String>();
-		this.crackedHints = new Hashtable<String,String>();
+		this.context().system().eventStream().subscribe(this.self(), HintIndex.PublishedEvent.class);
 		this.passwordChars = new ArrayList<String>();
+		this.deferredHintUnits = new ArrayList<>();
+		
+		int metricsInterval = ConfigurationSingleton.get().getMetricsInterval();
+		if (metricsInterval >= 0) {
+			FiniteDuration interval = FiniteDuration.create(Math.max(1, metricsInterval), TimeUnit.MILLISECONDS);
+			this.reporting = this.context().system().scheduler().schedule(interval, interval, this.self(), new ReportMessage(), this.context().dispatcher(), ActorRef.noSender());
+		}
 	}
 
 	@Override
 	public void postStop() {
+		this.stopped.set(true);
+		if (this.reporting != null)
+			this.reporting.cancel();
 		this.cluster.unsubscribe(this.self());
+		this.context().system().eventStream().unsubscribe(this.self());
 	}
 
 	////////////////////
@@ -122,125 +223,289 @@ public class Worker extends AbstractLoggingActor {
 				.match(MemberUp.class, this::handle)
 				.match(MemberRemoved.class, this::handle)
 				.match(TaskMessage.class, this::handle)
+				.match(CancelMessage.class, this::handle)
 				.match(HashMessage.class, this::handle)
 				.match(PasswordCharsMessage.class, this::handle)
 				.match(HintsHashesMessage.class, this::handle)
-				.match(CrackedHintsMessage.class, this::handle)
+				.match(HintIndex.PublishedEvent.class, this::handle)
+				.match(ReportMessage.class, this::handle)
+				.match(DigestCacheLoadedMessage.class, this::handle)
 				.matchAny(object -> this.log().info("Received unknown message: \"{}\"", object.toString()))
 				.build();
 	}
 	
 	private void handle(PasswordCharsMessage message) {
+		HashEngine.toBytes(message.getPasswordChars()); // Candidates are hashed as single-byte characters, so reject anything else early
 		this.passwordChars = new ArrayList<String>();
 		for (char cc: message.getPasswordChars().toCharArray()) {
 			this.passwordChars.add(String.valueOf(cc));
 		}
+		
+		// Hint units wait while the node maps or builds the alphabet's digest cache, because building it hashes all of
+		// their candidates anyway
+		this.digestCache = DigestCacheLoader.get(this.context().system()).load(ConfigurationSingleton.get().getDigestCacheDirectory(), message.getPasswordChars(), this.computePool);
+		if (!this.digestCache.isDone()) {
+			final ActorRef self = this.self();
+			this.digestCache.whenComplete((cache, failure) -> self.tell(new DigestCacheLoadedMessage(), ActorRef.noSender()));
+		}
 	}
 
 	private void handle(HashMessage message) {
+		if (this.mustDefer(message)) {
+			// The master shipped the unit's hints version to another worker of this ActorSystem, which has not yet
+			// published it, or the node is still loading its digest cache
+			this.deferredHintUnits.add(new Pair<>(message, this.sender()));
+			return;
+		}
+		this.crack(message, this.sender());
+	}
+	
+	private boolean mustDefer(HashMessage message) {
+		return (this.hintIndex.version() < message.getHintsVersion()) || ((this.digestCache != null) && !this.digestCache.isDone());
+	}
+	
+	private void handle(HintIndex.PublishedEvent event) {
+		this.resumeDeferredHintUnits();
+	}
+	
+	private void handle(DigestCacheLoadedMessage message) {
+		this.resumeDeferredHintUnits();
+	}
+	
+	private void resumeDeferredHintUnits() {
+		List<Pair<HashMessage, ActorRef>> deferred = this.deferredHintUnits;
+		this.deferredHintUnits = new ArrayList<>();
+		for (Pair<HashMessage, ActorRef> unit : deferred) {
+			if (this.mustDefer(unit.first()))
+				this.deferredHintUnits.add(unit);
+			else
+				this.crack(unit.first(), unit.second());
+		}
+	}
+	
+	private void crack(HashMessage message, ActorRef requester) {
 		String cc = message.getCharacter();
-		List<String> passwordChars = this.passwordChars;
-		char[] tmpChars = new char[passwordChars.size()-1]; // heapPermutations needs a char array
+		String prefix = message.getPrefix();
+		byte[] symbols = new byte[this.passwordChars.size() - 1];
 		int ii = 0;
-		for (String ct : passwordChars) {
-			if (!ct.equals(cc)) {
-				tmpChars[ii] = ct.toCharArray()[0]; // One letter String to char
+		for (char ct : prefix.toCharArray()) {
+			symbols[ii] = (byte) ct;
+			ii++;
+		}
+		for (String ct : this.passwordChars) {
+			if (!ct.equals(cc) && !prefix.contains(ct)) {
+				symbols[ii] = (byte) ct.charAt(0);
 				ii++;
 			}
 		}
-		List<String> permutations = new ArrayList<String>();
-		this.heapPermutation(tmpChars, tmpChars.length, permutations); // permutations returned by reference
-
-		String phash = new String("");
+		
+		// Split the unit's permutation space by the symbol that follows the prefix and crack the parts in parallel on
+		// the compute pool; the HintIndex only grows, so the parts can read it concurrently while further deltas arrive
+		final int from = Math.min(prefix.length(), symbols.length - 1);
+		final DigestIndex hints = this.hintIndex.digests();
+		final BloomFilter filter = this.hintIndex.filter();
+		final AtomicBoolean stopped = this.stopped;
+		final LongAdder hashes = this.hashes;
+		final FilterCounters filterCounters = this.filterCounters;
+		final TaskTimer timer = new TaskTimer();
+		List<CompletableFuture<Hashtable<String,String>>> parts = new ArrayList<>(symbols.length);
+		final DigestCache cache = (this.digestCache == null) ? null : this.digestCache.getNow(null);
+		final long version = this.hintIndex.version();
+		// The dictionary's first retrieval starts the node's replication, which only replicated units need
+		final HintDictionary dictionary = message.isReplicated() ? HintDictionary.get(this.context().system()) : null;
+		if (cache != null) {
+			// The cache knows the plaintext of every hint of this alphabet, so the unit's hints are looked up instead
+			parts.add(CompletableFuture.supplyAsync(() -> {
+				timer.start();
+				return lookupHints(cache, hints, version, cc, prefix);
+			}, this.computePool));
+		}
+		for (int next = Math.max(from, 0); (cache == null) && (next < symbols.length); next++) {
+			final byte[] part = symbols.clone();
+			part[from] = symbols[next];
+			part[next] = symbols[from];
+			parts.add(CompletableFuture.supplyAsync(() -> {
+				timer.start();
+				return crackHints(part, from + 1, hints, filter, stopped, hashes, filterCounters);
+			}, this.computePool));
+		}
+		
+		CompletableFuture<Master.HintMessage> result = CompletableFuture
+				.allOf(parts.toArray(new CompletableFuture<?>[parts.size()]))
+				.thenApply(done -> {
+					timer.finish();
+					Hashtable<String,String> output = new Hashtable<String,String>();
+					parts.forEach(part -> output.putAll(part.join()));
+					if (message.isReplicated()) {
+						// The hints reach the master and all other nodes through their replicas; the master only
+						// learns how many to wait for
+						dictionary.publish(output);
+						return new Master.HintMessage(message.getUnit(), new Hashtable<String,String>(), version, output.size());
+					}
+					return new Master.HintMessage(message.getUnit(), output, version, 0);
+				});
+		this.reply(result, requester);
+	}
+	
+	// Send the task's result to its requester and request the next task from the master, which keeps the number of
+	// tasks in flight constant; the requester is the master itself unless the stream engine asked for the result
+	private void reply(CompletableFuture<?> result, ActorRef requester) {
+		final ActorRef self = this.self();
+		final ActorSelection master = this.master;
+		result.whenComplete((message, failure) -> {
+			requester.tell((failure == null) ? message : new Status.Failure(failure), self);
+			master.tell(new Master.WorkRequestMessage(1), self);
+		});
+	}
+	
+	// Hash each permutation of the symbols that keeps the first symbols fixed, a batch of permutations at a time;
+	// only the digests that pass the Bloom filter probe the hints, and hints whose plaintext this node already knows
+	// need not be reported again
+	private static Hashtable<String,String> crackHints(byte[] symbols, int from, DigestIndex hints, BloomFilter filter, AtomicBoolean stopped, LongAdder hashes, FilterCounters filterCounters) {
+		BatchHashEngine engine = BatchHashEngine.get();
+		PermutationGenerator permutations = new PermutationGenerator(symbols, from);
+		byte[][] batch = new byte[BatchHashEngine.BATCH_SIZE][symbols.length];
+		long[] digests = new long[BatchHashEngine.BATCH_SIZE * BatchHashEngine.WORDS_PER_DIGEST];
 		Hashtable<String,String> output = new Hashtable<String,String>();
-		ii=0;
-		for (String perm : permutations) {
-			phash = this.hash(perm);
-			if (this.allHints.contains(phash)) {
-				output.put(phash,perm);
+		long probes = 0, passes = 0, hits = 0;
+		boolean more = true;
+		while (more && !stopped.get()) {
+			int count = 0;
+			while (more && count < BatchHashEngine.BATCH_SIZE) {
+				System.arraycopy(symbols, 0, batch[count++], 0, symbols.length);
+				more = permutations.next();
+			}
+			engine.hashBatch(batch, count, digests);
+			hashes.add(count);
+			probes += count;
+			for (int ii = 0; ii < count; ii++) {
+				int offset = ii * BatchHashEngine.WORDS_PER_DIGEST;
+				if (!filter.mightContainDigest(digests, offset))
+					continue;
+				passes++;
+				if (hints.contains(digests, offset)) {
+					hits++;
+					byte[] phash = BatchHashEngine.toBytes(digests, offset);
+					if (hints.get(phash) == null)
+						output.put(HashEngine.toHex(phash), new String(batch[ii], StandardCharsets.US_ASCII));
+				}
 			}
-			
 		}
-		this.sender().tell(new Master.HintMessage(output), this.self());
+		filterCounters.probes.add(probes);
+		filterCounters.passes.add(passes);
+		filterCounters.hits.add(hits);
+		return output;
 	}
 	
-	private void handle(HintsHashesMessage message) {
-		List<String> tmp = new ArrayList<String>(message.getAllHints());
-		for (String ee : tmp) {
-			this.allHints.add(ee);
-		}
+	// Take the unit's slice of the hints that the cache resolves once per hints version for all units of this node and
+	// keep those whose plaintext this node does not know yet
+	private static Hashtable<String,String> lookupHints(DigestCache cache, DigestIndex hints, long version, String character, String prefix) {
+		Hashtable<String,String> output = new Hashtable<String,String>();
+		cache.slice(hints, version, character, prefix).forEach((hexDigest, permutation) -> {
+			if (hints.get(HashEngine.fromHex(hexDigest)) == null)
+				output.put(hexDigest, permutation);
+		});
+		return output;
 	}
 	
-	private void handle(CrackedHintsMessage message) {
-		Hashtable<String,String> tmpCrackedHints = message.getCrackedHints();
-		for (String key : tmpCrackedHints.keySet()) {
-			this.crackedHints.put(key, tmpCrackedHints.get(key));
-		}
+	private void handle(HintsHashesMessage message) {
+		this.hintIndex.apply(message.getFrom(), message.getTo(), message.getDigests(), message.getPlaintexts());
 	}
 	
 	private void handle(TaskMessage message) {
-		String[] task = message.getLine();
-		int id = Integer.parseInt(task[0]);
-		String name = task[1];
-		char[] passwordChars = task[2].toCharArray();
-		int passwordLength = Integer.parseInt(task[3]);
-		String passwordHash = task[4];
-				
-		List<String> hintsHashes = new ArrayList<String>();
-		for (int ii=5; ii < task.length; ii++) {
-			hintsHashes.add(task[ii]);
-		}
-		HashSet<Character> notLetters = new HashSet<Character>();
-		for (String hh : hintsHashes) {
-			if (this.crackedHints.containsKey(hh)) {
-				notLetters.add(this.findMissingLetter(passwordChars, this.crackedHints.get(hh).toCharArray()));
-			}
-		}
+		int id = message.getId();
+		int passwordLength = message.getPasswordLength();
+		byte[] passwordHash = message.getPasswordHash();
 		
 		// Here be cracking!
 		// With a subset of letters only
-		String finalLetters = new String("");
-		String phash = new String("");
-		for (char cc : passwordChars) {
-			if (!notLetters.contains(cc)) {
-				finalLetters += cc;
-			}
-		}
-		if (finalLetters.length() > 3) {
-			String[] output = {name, "crashed"};
-			this.sender().tell(new Master.ResultMessage(output), this.self());
-			return;
-		}
-		for (String candidate : this.generateAllKLength(finalLetters.toCharArray(), passwordLength)) {
-			phash = this.hash(candidate);
-			if (phash.equals(passwordHash)) {
-				String[] output = {name, candidate};
-				this.sender().tell(new Master.ResultMessage(output), this.self());
-				return;
-			}
+		final byte[] letters = message.getLetters();
+		
+		// Split the task's candidate range into parts and search them in parallel on the compute pool;
+		// the first part that finds the password makes all other parts stop early, and so does a cancellation by the master
+		final long rangeSize = message.getEnd() - message.getStart();
+		final long partSize = Math.max(1, (rangeSize + this.numComputeThreads - 1) / this.numComputeThreads);
+		final AtomicBoolean found = new AtomicBoolean(false);
+		// A range that arrives after the user's other ranges on this worker were cancelled, e.g. because they lost against
+		// speculative duplicates, must not inherit their cancellation
+		final Cancellation cancellation = this.cancellations.compute(id, (key, current) -> {
+			current = (current == null || current.cancelled.get()) ? new Cancellation() : current;
+			current.numRanges++;
+			return current;
+		});
+		final AtomicBoolean cancelled = cancellation.cancelled;
+		final AtomicBoolean stopped = this.stopped;
+		final LongAdder hashes = this.hashes;
+		final TaskTimer timer = new TaskTimer();
+		List<CompletableFuture<String>> parts = new ArrayList<>(this.numComputeThreads);
+		for (long from = message.getStart(); from < message.getEnd(); from += partSize) {
+			final long start = from;
+			final long end = Math.min(message.getEnd(), from + partSize);
+			parts.add(CompletableFuture.supplyAsync(() -> {
+				timer.start();
+				return crackPassword(letters, passwordLength, passwordHash, start, end, found, cancelled, stopped, hashes);
+			}, this.computePool));
 		}
 		
-		String[] output = {name, "randomPassword"};
-		this.sender().tell(new Master.ResultMessage(output), this.self());
+		CompletableFuture<Master.ResultMessage> result = CompletableFuture
+				.allOf(parts.toArray(new CompletableFuture<?>[parts.size()]))
+				.thenApply(done -> {
+					timer.finish();
+					this.cancellations.computeIfPresent(id, (key, current) -> ((current == cancellation) && (--current.numRanges == 0)) ? null : current);
+					String password = parts.stream().map(CompletableFuture::join).filter(p -> p != null).findAny().orElse(null);
+					return new Master.ResultMessage(id, password, message.getStart(), message.getEnd());
+				});
+		this.reply(result, this.sender());
 	}
 	
-	private char findMissingLetter(char[] alphabet, char[] target) {
-		boolean found = false;
-		for (char ii : alphabet) {
-			for (char jj : target) {
-				if (ii == jj) {
-					found = true;
-					break;
-				}
+	private void handle(CancelMessage message) {
+		Cancellation cancellation = this.cancellations.get(message.getId());
+		if (cancellation != null)
+			cancellation.cancelled.set(true);
+	}
+	
+	// Hash the candidates in the index range [start, end), a batch at a time, until one of them or any other part matches the password
+	private static String crackPassword(byte[] letters, int passwordLength, byte[] passwordHash, long start, long end, AtomicBoolean found, AtomicBoolean cancelled, AtomicBoolean stopped, LongAdder hashes) {
+		BatchHashEngine engine = BatchHashEngine.get();
+		CombinationGenerator candidates = new CombinationGenerator(letters, passwordLength);
+		candidates.seek(start);
+		long[] target = BatchHashEngine.toWords(passwordHash);
+		byte[][] batch = new byte[BatchHashEngine.BATCH_SIZE][passwordLength];
+		long[] digests = new long[BatchHashEngine.BATCH_SIZE * BatchHashEngine.WORDS_PER_DIGEST];
+		boolean more = true;
+		while (more && !found.get() && !cancelled.get() && !stopped.get()) {
+			int count = 0;
+			while (more && count < BatchHashEngine.BATCH_SIZE) {
+				System.arraycopy(candidates.current(), 0, batch[count++], 0, passwordLength);
+				more = candidates.index() + 1 < end && candidates.next();
 			}
-			if (!found) {
-				return(ii);
+			engine.hashBatch(batch, count, digests);
+			hashes.add(count);
+			for (int ii = 0; ii < count; ii++) {
+				int offset = ii * BatchHashEngine.WORDS_PER_DIGEST;
+				if (digests[offset] == target[0] && digests[offset + 1] == target[1] && digests[offset + 2] == target[2] && digests[offset + 3] == target[3]) {
+					found.set(true);
+					return new String(batch[ii], StandardCharsets.US_ASCII);
+				}
 			}
-			found = false;
 		}
-		return "".charAt(0); // Buggy but shouldn't be called anyway
+		return null;
 	}
-
+	
+	// Report the hashes and task latencies since the last report to the master, which aggregates them per node
+	private void handle(ReportMessage message) {
+		if (this.master == null)
+			return;
+		long hashes = this.hashes.sumThenReset();
+		long filterProbes = this.filterCounters.probes.sumThenReset();
+		long filterPasses = this.filterCounters.passes.sumThenReset();
+		long filterHits = this.filterCounters.hits.sumThenReset();
+		long[] serviceTimes = this.serviceTimes.drain();
+		long[] queueWaits = this.queueWaits.drain();
+		if ((hashes > 0) || (Arrays.stream(serviceTimes).sum() > 0))
+			this.master.tell(new Master.MetricsMessage(hashes, filterProbes, filterPasses, filterHits, serviceTimes, queueWaits), this.self());
+	}
+	
 	private void handle(CurrentClusterState message) {
 		message.getMembers().forEach(member -> {
 			if (member.status().equals(MemberStatus.up()))
@@ -256,9 +521,9 @@ public class Worker extends AbstractLoggingActor {
 		if ((this.masterSystem == null) && member.hasRole(MasterSystem.MASTER_ROLE)) {
 			this.masterSystem = member;
 			
-			this.getContext()
-				.actorSelection(member.address() + "/user/" + Master.DEFAULT_NAME)
-				.tell(new Master.RegistrationMessage(), this.self());
+			this.master = this.getContext().actorSelection(member.address() + "/user/" + Master.DEFAULT_NAME);
+			this.master.tell(new Master.RegistrationMessage(this.hintIndex.version()), this.self());
+			this.master.tell(new Master.WorkRequestMessage(this.numTasksInFlight), this.self());
 		}
 	}
 	
@@ -266,78 +531,4 @@ public class Worker extends AbstractLoggingActor {
 		if (this.masterSystem.equals(message.member()))
 			this.self().tell(PoisonPill.getInstance(), ActorRef.noSender());
 	}
-	
-	private String hash(String line) {
-		try {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] hashedBytes = digest.digest(String.valueOf(line).getBytes("UTF-8"));
-			
-			StringBuffer stringBuffer = new StringBuffer();
-			for (int i = 0; i < hashedBytes.length; i++) {
-				stringBuffer.append(Integer.toString((hashedBytes[i] & 0xff) + 0x100, 16).substring(1));
-			}
-			return stringBuffer.toString();
-		}
-		catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
-			throw new RuntimeException(e.getMessage());
-		}
-	}
-	
-	// Generating all permutations of an array using Heap's Algorithm
-	// https://en.wikipedia.org/wiki/Heap's_algorithm
-	// https://www.geeksforgeeks.org/heaps-algorithm-for-generating-permutations/
-	private void heapPermutation(char[] a, int size, List<String> l) {
-		// If size is 1, store the obtained permutation
-		if (size == 1)
-			l.add(new String(a));
-
-		for (int i = 0; i < size; i++) {
-			heapPermutation(a, size - 1, l);
-
-			// If size is odd, swap first and last element
-			if (size % 2 == 1) {
-				char temp = a[0];
-				a[0] = a[size - 1];
-				a[size - 1] = temp;
-			}
-
-			// If size is even, swap i-th and last element
-			else {
-				char temp = a[i];
-				a[i] = a[size - 1];
-				a[size - 1] = temp;
-			}
-		}
-	}
-	
-
-	// Modified from https://www.geeksforgeeks.org/print-all-combinations-of-given-length/
-	private List<String> generateAllKLength(char[] set, int k) 
-	{ 
-	    int n = set.length;  
-	    return generateAllKLengthRec(set, "", n, k); 
-	}
-	
-	private List<String> generateAllKLengthRec(char[] set, String prefix, int n, int k) { 
-		// Base case: k is 0,
-		// print prefix 
-		List<String> output= new ArrayList<String>();
-		if (k == 0) {
-			output.add(prefix);
-			return output;
-		}
-		// One by one add all characters  
-		// from set and recursively  
-		// call for k equals to k-1
-		for (int i = 0; i < n; ++i) { 
-			// Next character of input added 
-			String newPrefix = prefix + set[i];  
-			// k is decreased, because  
-			// we have added a new character 
-			output.addAll(this.generateAllKLengthRec(set, newPrefix, n, k - 1));  
-		}
-		return(output);
-	}
-	
-	
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package de.hpi.ddm.actors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.ActorContext;
+import akka.actor.ActorRef;
+import akka.actor.Address;
+import akka.actor.Cancellable;
+import akka.event.EventStream;
+import akka.event.LoggingAdapter;
+import de.hpi.ddm.configuration.Configuration;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.Histogram;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import scala.concurrent.duration.FiniteDuration;
+
+public class WorkerMetrics {
+
+	// The hash rate and task latencies of one node's workers over one summary interval, or of all nodes over the whole
+	// job; the masters publish the summaries on the event stream, where the MetricsListener picks them up
+	@Data @AllArgsConstructor
+	public static class Summary {
+		private Address node;			// The summarized node or null for the summary of all nodes
+		private long hashes;			// The number of candidates that were hashed
+		private long hashesPerSecond;
+		private long numTasks;
+		private double filterFalsePositiveRate;	// The share of the hint candidates not in the hint index that passed the Bloom filter
+		private double filterProbeSavings;		// The share of the hint candidates that the Bloom filter kept from probing the hint index
+		private long serviceTimeP50;	// The microseconds from the start of a task's first part to the end of its last part
+		private long serviceTimeP99;
+		private long queueWaitP50;		// The microseconds that a task waited for the compute pool
+		private long queueWaitP99;
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d hashes (%d per second) in %d tasks, service time p50 %.1f ms p99 %.1f ms, queue wait p50 %.1f ms p99 %.1f ms, filter false positives %.3f%% saving %.1f%% of the hint probes",
+					(this.node == null) ? "All nodes" : this.node.toString(), this.hashes, this.hashesPerSecond, this.numTasks,
+					this.serviceTimeP50 / 1000.0, this.serviceTimeP99 / 1000.0, this.queueWaitP50 / 1000.0, this.queueWaitP99 / 1000.0,
+					100 * this.filterFalsePositiveRate, 100 * this.filterProbeSavings);
+		}
+	}
+
+	// The reports of one node's workers since the last summary
+	private static class Node {
+		private long hashes = 0;
+		private long filterProbes = 0;
+		private long filterPasses = 0;
+		private long filterHits = 0;
+		private final Histogram serviceTimes = new Histogram();
+		private final Histogram queueWaits = new Histogram();
+	}
+
+	private final Address localAddress;		// The address of the master's node, which its local workers report with no host
+	private final Map<Address, Node> nodes = new LinkedHashMap<>();
+	private final Node total = new Node();		// All reports of the job
+	private final long startTime = System.currentTimeMillis();
+	private long lastSummaryTime = this.startTime;
+
+	public WorkerMetrics(Address localAddress) {
+		this.localAddress = localAddress;
+	}
+
+	/**
+	 * Add a worker's report to the metrics of its node.
+	 * @param worker the reporting worker
+	 * @param message the worker's hashes and task latencies since its last report
+	 */
+	public void record(ActorRef worker, Master.MetricsMessage message) {
+		Address address = worker.path().address().hasGlobalScope() ? worker.path().address() : this.localAddress;
+		Node node = this.nodes.computeIfAbsent(address, key -> new Node());
+		for (Node metrics : new Node[] { node, this.total }) {
+			metrics.hashes += message.getHashes();
+			metrics.filterProbes += message.getFilterProbes();
+			metrics.filterPasses += message.getFilterPasses();
+			metrics.filterHits += message.getFilterHits();
+			metrics.serviceTimes.add(message.getServiceTimes());
+			metrics.queueWaits.add(message.getQueueWaits());
+		}
+	}
+
+	/**
+	 * Summarize the reports of each node since the last summary and start a new summary interval.
+	 * @return the summaries of the nodes that reported any work in this interval
+	 */
+	public List<Summary> summarize() {
+		long now = System.currentTimeMillis();
+		long elapsed = Math.max(1, now - this.lastSummaryTime);
+		this.lastSummaryTime = now;
+
+		List<Summary> summaries = new ArrayList<>();
+		for (Map.Entry<Address, Node> node : this.nodes.entrySet()) {
+			if ((node.getValue().hashes > 0) || (node.getValue().serviceTimes.count() > 0))
+				summaries.add(summarize(node.getKey(), node.getValue(), elapsed));
+			node.getValue().hashes = 0;
+			node.getValue().filterProbes = 0;
+			node.getValue().filterPasses = 0;
+			node.getValue().filterHits = 0;
+			node.getValue().serviceTimes.drain();
+			node.getValue().queueWaits.drain();
+		}
+		return summaries;
+	}
+
+	/**
+	 * Log the summaries of the current interval and publish them on the event stream.
+	 * @param log the master's log
+	 * @param eventStream the event stream of the master's actor system
+	 */
+	public void publish(LoggingAdapter log, EventStream eventStream) {
+		for (Summary summary : this.summarize()) {
+			log.info("{}", summary);
+			eventStream.publish(summary);
+		}
+	}
+
+	/**
+	 * Schedule the {@link Master.SummaryMessage}s that make a master publish its summaries every metrics interval.
+	 * @param context the master's context
+	 * @param master the master
+	 * @return the schedule or null if the metrics are disabled
+	 */
+	public static Cancellable schedule(ActorContext context, ActorRef master) {
+		Configuration c = ConfigurationSingleton.get();
+		if (c.getMetricsInterval() < 0)
+			return null;
+		FiniteDuration interval = FiniteDuration.create(Math.max(1, c.getMetricsInterval()), TimeUnit.MILLISECONDS);
+		return context.system().scheduler().schedule(interval, interval, master, new Master.SummaryMessage(), context.dispatcher(), ActorRef.noSender());
+	}
+
+	/**
+	 * Summarize all reports of the job.
+	 * @return the summary of all nodes since this {@code WorkerMetrics} was created
+	 */
+	public Summary total() {
+		return summarize(null, this.total, Math.max(1, System.currentTimeMillis() - this.startTime));
+	}
+
+	private static Summary summarize(Address address, Node node, long elapsed) {
+		long misses = node.filterProbes - node.filterHits;
+		return new Summary(address, node.hashes, node.hashes * 1000 / elapsed, node.serviceTimes.count(),
+				(misses > 0) ? (double) (node.filterPasses - node.filterHits) / misses : 0,
+				(node.filterProbes > 0) ? 1 - (double) node.filterPasses / node.filterProbes : 0,
+				node.serviceTimes.percentile(50), node.serviceTimes.percentile(99),
+				node.queueWaits.percentile(50), node.queueWaits.percentile(99));
+	}
+}
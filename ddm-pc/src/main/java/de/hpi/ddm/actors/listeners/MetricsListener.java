@@ -1,6 +1,10 @@
 package de.hpi.ddm.actors.listeners;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import akka.actor.AbstractActor;
+import akka.actor.Address;
 import akka.actor.Props;
 import akka.cluster.Cluster;
 import akka.cluster.ClusterEvent.CurrentClusterState;
@@ -12,6 +16,7 @@ import akka.cluster.metrics.StandardMetrics.Cpu;
 import akka.cluster.metrics.ClusterMetricsExtension;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
+import de.hpi.ddm.actors.WorkerMetrics;
 
 public class MetricsListener extends AbstractActor {
 
@@ -32,6 +37,7 @@ public class MetricsListener extends AbstractActor {
 	private final LoggingAdapter log = Logging.getLogger(getContext().system(), this);
 	private final Cluster cluster = Cluster.get(getContext().system());
 	private final ClusterMetricsExtension extension = ClusterMetricsExtension.get(getContext().system());
+	private final Map<Address, Long> hashRates = new HashMap<>(); // The latest hashes per second of each node, as the master summarized them
 
 	/////////////////////
 	// Actor Lifecycle //
@@ -40,11 +46,13 @@ public class MetricsListener extends AbstractActor {
 	@Override
 	public void preStart() {
 		this.extension.subscribe(self());
+		getContext().system().eventStream().subscribe(self(), WorkerMetrics.Summary.class);
 	}
 
 	@Override
 	public void postStop() {
 		this.extension.unsubscribe(self());
+		getContext().system().eventStream().unsubscribe(self());
 	}
 
 	////////////////////
@@ -55,15 +63,20 @@ public class MetricsListener extends AbstractActor {
 	public Receive createReceive() {
 		return receiveBuilder()
 			.match(ClusterMetricsChanged.class, this::logMetrics)
+			.match(WorkerMetrics.Summary.class, summary -> this.hashRates.put(summary.getNode(), summary.getHashesPerSecond()))
 			.match(CurrentClusterState.class, message -> {/*Ignore*/})
 			.build();
 	}
 	
+	// The master's system sees the summaries of all nodes, so it logs every node's heap and load next to its hash rate;
+	// any other system only logs its own metrics
 	private void logMetrics(ClusterMetricsChanged clusterMetrics) {
 		for (NodeMetrics nodeMetrics : clusterMetrics.getNodeMetrics()) {
-			if (nodeMetrics.address().equals(this.cluster.selfAddress())) {
+			if (nodeMetrics.address().equals(this.cluster.selfAddress()) || this.hashRates.containsKey(nodeMetrics.address())) {
+				this.log.info("Node {}:", nodeMetrics.address());
 				this.logHeap(nodeMetrics);
 				this.logCpu(nodeMetrics);
+				this.logHashRate(nodeMetrics);
 			}
 		}
 	}
@@ -81,4 +94,11 @@ public class MetricsListener extends AbstractActor {
 			this.log.info("Load: {} ({} processors)", cpu.systemLoadAverage().get(), cpu.processors());
 		}
 	}
+
+	private void logHashRate(NodeMetrics nodeMetrics) {
+		Long hashRate = this.hashRates.get(nodeMetrics.address());
+		if (hashRate != null) {
+			this.log.info("Hash rate: {} hashes per second", hashRate);
+		}
+	}
 }
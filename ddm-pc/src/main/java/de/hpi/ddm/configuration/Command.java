@@ -15,4 +15,16 @@ public abstract class Command {
 	@Parameter(names = { "-w", "--numWorkers" }, description = "The number of workers (indexers/validators) to start locally; should be at least one if the algorithm is started standalone (otherwise there are no workers to run the discovery)", required = false)
 	int numWorkers = ConfigurationSingleton.get().getNumWorkers();
 	
+	@Parameter(names = { "-ct", "--numComputeThreads" }, description = "The number of threads in the local compute pool that all workers of this ActorSystem share for hashing", required = false)
+	int numComputeThreads = ConfigurationSingleton.get().getNumComputeThreads();
+	
+	@Parameter(names = { "-tf", "--numTasksInFlight" }, description = "The number of tasks that each worker requests ahead, so that it can start the next task without waiting for the master", required = false)
+	int numTasksInFlight = ConfigurationSingleton.get().getNumTasksInFlight();
+	
+	@Parameter(names = { "-mi", "--metricsInterval" }, description = "The milliseconds between two reports of the workers' hash rates and task latencies to the master, which logs them as a summary per node; negative to disable the metrics", required = false)
+	int metricsInterval = ConfigurationSingleton.get().getMetricsInterval();
+	
+	@Parameter(names = { "-dc", "--digestCacheDirectory" }, description = "The directory of the precomputed hint digest tables, one file per alphabet, which a node builds on its first run with an alphabet and then looks hints up in instead of hashing them; empty to disable the cache", required = false)
+	String digestCacheDirectory = ConfigurationSingleton.get().getDigestCacheDirectory();
+	
 }
@@ -13,11 +13,65 @@ public class CommandMaster extends Command {
 		return Configuration.DEFAULT_MASTER_PORT;
 	}
 
+	@Parameter(names = { "-ml", "--metricsListener" }, description = "Start the metrics listener, which logs the heap, load and hash rate of the nodes", required = false)
+	boolean metricsListener = ConfigurationSingleton.get().isMetricsListener();
+
 	@Parameter(names = { "-sp", "--startPaused" }, description = "Wait for some console input to start the discovery; useful, if we want to wait manually until all ActorSystems in the cluster are started (e.g. to avoid work stealing effects in performance evaluations)", required = false)
 	boolean startPaused = ConfigurationSingleton.get().isStartPaused();
 
 	@Parameter(names = { "-bs", "--bufferSize" }, description = "Buffer for input reading (the DatasetReader pre-fetches and buffers this many records)", required = false)
 	int bufferSize = ConfigurationSingleton.get().getBufferSize();
+
+	@Parameter(names = { "-mr", "--mappedReading" }, description = "Memory-map the dataset and parse line-aligned chunks of it in parallel instead of reading it line by line", required = false)
+	boolean mappedReading = ConfigurationSingleton.get().isMappedReading();
+
+	@Parameter(names = { "-fd", "--followDataset" }, description = "Keep running once the dataset is cracked and crack the users that are appended to the dataset file, or to the CSV segments of the dataset directory <datasetPath><datasetName> if it exists, as they arrive; implies an early start of the hint units; applies to the master's task protocol, not to the stream engine", required = false)
+	boolean followDataset = ConfigurationSingleton.get().isFollowDataset();
+
+	@Parameter(names = { "-fpi", "--followPollInterval" }, description = "The milliseconds between two checks of the followed dataset for file changes", required = false)
+	int followPollInterval = ConfigurationSingleton.get().getFollowPollInterval();
+
+	@Parameter(names = { "-se", "--streamEngine" }, description = "Run the job as a stream graph of file source, hint cracking, password cracking and collector sink with backpressure between the stages instead of with the master's task protocol", required = false)
+	boolean streamEngine = ConfigurationSingleton.get().isStreamEngine();
+
+	@Parameter(names = { "-spl", "--streamParallelism" }, description = "The number of hint tasks and of password tasks that the stream engine keeps in flight across all workers", required = false)
+	int streamParallelism = ConfigurationSingleton.get().getStreamParallelism();
+
+	@Parameter(names = { "-of", "--outputFile" }, description = "The file that the collector writes each user's ID and password to as soon as they are known; empty to only log the results", required = false)
+	String outputFile = ConfigurationSingleton.get().getOutputFile();
+
+	@Parameter(names = { "-oo", "--outputOrdered" }, description = "Write the results in the order of their user IDs instead of in the order in which they are found", required = false)
+	boolean outputOrdered = ConfigurationSingleton.get().isOutputOrdered();
+
+	@Parameter(names = { "-ofi", "--outputFlushInterval" }, description = "The milliseconds between two flushes of the output file, which also report the collector's throughput", required = false)
+	int outputFlushInterval = ConfigurationSingleton.get().getOutputFlushInterval();
+
+	@Parameter(names = { "-jf", "--journalFile" }, description = "The file that cracked hints and collected passwords are journaled to, so that a restarted master resumes the job from it; empty to disable journaling", required = false)
+	String journalFile = ConfigurationSingleton.get().getJournalFile();
+
+	@Parameter(names = { "-jfi", "--journalFlushInterval" }, description = "The milliseconds between two writes of the buffered journal records, which is at most the work that a crash loses", required = false)
+	int journalFlushInterval = ConfigurationSingleton.get().getJournalFlushInterval();
+
+	@Parameter(names = { "-jcf", "--journalCompactFrames" }, description = "The number of written journal frames after which the journal is compacted, so that the journal of a long-running job does not grow without limit; 0 to compact it only when the job ends", required = false)
+	int journalCompactFrames = ConfigurationSingleton.get().getJournalCompactFrames();
+
+	@Parameter(names = { "-hus", "--hintUnitSize" }, description = "The maximum number of permutations in one hint cracking work unit; the master fixes leading characters until a unit is at most this large", required = false)
+	int hintUnitSize = ConfigurationSingleton.get().getHintUnitSize();
+
+	@Parameter(names = { "-pus", "--passwordUnitSize" }, description = "The maximum number of password candidates in one password cracking work unit; larger password spaces are split into several units", required = false)
+	long passwordUnitSize = ConfigurationSingleton.get().getPasswordUnitSize();
+
+	@Parameter(names = { "-pst", "--passwordSpaceThreshold" }, description = "The password search of a user starts before all of its hints are cracked once its remaining password space has at most this many candidates", required = false)
+	long passwordSpaceThreshold = ConfigurationSingleton.get().getPasswordSpaceThreshold();
+
+	@Parameter(names = { "-rh", "--replicatedHints" }, description = "Keep the cracked hints in a dictionary that Akka Distributed Data replicates to all nodes, so that workers publish them directly and the master only counts them; applies to the master's task protocol, not to the stream engine", required = false)
+	boolean replicatedHints = ConfigurationSingleton.get().isReplicatedHints();
+	
+	@Parameter(names = { "-es", "--earlyStart" }, description = "Hand out hint units as soon as the first batch fixes the alphabet instead of once the whole dataset is loaded; units that finished before later digests arrived are run again for them; applies to the master's task protocol, not to the stream engine", required = false)
+	boolean earlyStart = ConfigurationSingleton.get().isEarlyStart();
+	
+	@Parameter(names = { "-sd", "--speculationDelay" }, description = "The milliseconds that a task must have been running before an idle worker of another node runs a speculative duplicate of it once no other work is left; negative to disable speculation", required = false)
+	long speculationDelay = ConfigurationSingleton.get().getSpeculationDelay();
 	
 	// DatasetDescriptor
 	
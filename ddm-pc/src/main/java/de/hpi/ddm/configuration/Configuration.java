@@ -21,10 +21,54 @@ public class Configuration {
 	
 	private int numWorkers = 4;						// The number of workers to start locally; should be at least one if the algorithm is started standalone (otherwise there are no workers to run the application)
 	
+	private int numComputeThreads = Runtime.getRuntime().availableProcessors(); // The number of threads in the local compute pool that all workers of this ActorSystem share for hashing
+	
+	private int numTasksInFlight = 2;				// The number of tasks that each worker requests ahead, so that it can start the next task without waiting for the master
+	
+	private int metricsInterval = 5000;				// The milliseconds between two reports of the workers' hash rates and task latencies to the master, which logs them as a summary per node; negative to disable the metrics
+	
+	private String digestCacheDirectory = "";		// The directory of the precomputed hint digest tables, one file per alphabet, which a node builds on its first run with an alphabet and then looks hints up in instead of hashing them; empty to disable the cache
+	
+	private boolean metricsListener = false;		// Start the metrics listener, which logs the heap, load and hash rate of the nodes
+	
 	private boolean startPaused = false;			// Wait for some console input to start; useful, if we want to wait manually until all ActorSystems in the cluster are started (e.g. to avoid work stealing effects in performance evaluations)
 	
 	private int bufferSize = 50; 					// Buffer for input reading (the DatasetReader pre-fetches and buffers this many records)
 	
+	private boolean mappedReading = false;			// Memory-map the dataset and parse line-aligned chunks of it in parallel instead of reading it line by line
+	
+	private boolean followDataset = false;			// Keep running once the dataset is cracked and crack the users that are appended to the dataset file, or to the CSV segments of the dataset directory, as they arrive; implies an early start of the hint units
+	
+	private int followPollInterval = 1000;			// The milliseconds between two checks of the followed dataset for file changes
+	
+	private boolean streamEngine = false;			// Run the job as a stream graph of file source, hint cracking, password cracking and collector sink with backpressure between the stages instead of with the master's task protocol
+	
+	private int streamParallelism = 8;				// The number of hint tasks and of password tasks that the stream engine keeps in flight across all workers
+	
+	private String outputFile = "results.csv";		// The file that the collector writes each user's ID and password to as soon as they are known; empty to only log the results
+	
+	private boolean outputOrdered = false;			// Write the results in the order of their user IDs instead of in the order in which they are found
+	
+	private int outputFlushInterval = 1000;			// The milliseconds between two flushes of the output file, which also report the collector's throughput
+	
+	private String journalFile = "";				// The file that cracked hints and collected passwords are journaled to, so that a restarted master resumes the job from it; empty to disable journaling
+	
+	private int journalFlushInterval = 1000;		// The milliseconds between two writes of the buffered journal records, which is at most the work that a crash loses
+	
+	private int journalCompactFrames = 1000;		// The number of written journal frames after which the journal is compacted, so that the journal of a long-running job does not grow without limit; 0 to compact it only when the job ends
+	
+	private int hintUnitSize = 362880;				// The maximum number of permutations in one hint cracking work unit; the master fixes leading characters until a unit is at most this large
+	
+	private long passwordUnitSize = 10000000;		// The maximum number of password candidates in one password cracking work unit; larger password spaces are split into several units
+	
+	private long passwordSpaceThreshold = 1000000;	// The password search of a user starts before all of its hints are cracked once its remaining password space has at most this many candidates
+	
+	private boolean replicatedHints = false;		// Keep the cracked hints in a dictionary that Akka Distributed Data replicates to all nodes, so that workers publish them directly and the master only counts them; applies to the master's task protocol, not to the stream engine
+	
+	private boolean earlyStart = false;				// Hand out hint units as soon as the first batch fixes the alphabet instead of once the whole dataset is loaded; units that finished before later digests arrived are run again for them; applies to the master's task protocol, not to the stream engine
+	
+	private long speculationDelay = 2000;			// The milliseconds that a task must have been running before an idle worker of another node runs a speculative duplicate of it once no other work is left; negative to disable speculation
+	
 	private static String getDefaultHost() {
         try {
             return InetAddress.getLocalHost().getHostAddress();
@@ -37,8 +81,30 @@ public class Configuration {
 		this.host = commandMaster.host;
 		this.port = commandMaster.port;
 		this.numWorkers = commandMaster.numWorkers;
+		this.numComputeThreads = commandMaster.numComputeThreads;
+		this.numTasksInFlight = commandMaster.numTasksInFlight;
+		this.metricsInterval = commandMaster.metricsInterval;
+		this.digestCacheDirectory = commandMaster.digestCacheDirectory;
+		this.metricsListener = commandMaster.metricsListener;
 		this.startPaused = commandMaster.startPaused;
 		this.bufferSize = commandMaster.bufferSize;
+		this.mappedReading = commandMaster.mappedReading;
+		this.followDataset = commandMaster.followDataset;
+		this.followPollInterval = commandMaster.followPollInterval;
+		this.streamEngine = commandMaster.streamEngine;
+		this.streamParallelism = commandMaster.streamParallelism;
+		this.outputFile = commandMaster.outputFile;
+		this.outputOrdered = commandMaster.outputOrdered;
+		this.outputFlushInterval = commandMaster.outputFlushInterval;
+		this.journalFile = commandMaster.journalFile;
+		this.journalFlushInterval = commandMaster.journalFlushInterval;
+		this.journalCompactFrames = commandMaster.journalCompactFrames;
+		this.hintUnitSize = commandMaster.hintUnitSize;
+		this.passwordUnitSize = commandMaster.passwordUnitSize;
+		this.passwordSpaceThreshold = commandMaster.passwordSpaceThreshold;
+		this.replicatedHints = commandMaster.replicatedHints;
+		this.earlyStart = commandMaster.earlyStart;
+		this.speculationDelay = commandMaster.speculationDelay;
 	}
 
 	public void update(CommandSlave commandSlave) {
@@ -47,5 +113,9 @@ public class Configuration {
 		this.masterHost = commandSlave.masterhost;
 		this.masterPort = commandSlave.masterport;
 		this.numWorkers = commandSlave.numWorkers;
+		this.numComputeThreads = commandSlave.numComputeThreads;
+		this.numTasksInFlight = commandSlave.numTasksInFlight;
+		this.metricsInterval = commandSlave.metricsInterval;
+		this.digestCacheDirectory = commandSlave.digestCacheDirectory;
 	}
 }
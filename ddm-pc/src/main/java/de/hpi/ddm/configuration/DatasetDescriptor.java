@@ -9,6 +9,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.Executor;
 
 import com.opencsv.CSVParser;
 import com.opencsv.CSVParserBuilder;
@@ -16,6 +17,9 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.enums.CSVReaderNullFieldIndicator;
 
+import de.hpi.ddm.structures.MappedCSVReader;
+import de.hpi.ddm.structures.TailingCSVReader;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -61,10 +65,8 @@ public class DatasetDescriptor implements Serializable {
 		this.readerSkipDifferingLines = commandMaster.readerSkipDifferingLines;
 	}
 
-	public CSVReader createCSVReader() throws IOException {
-		Path path = Paths.get(this.datasetPath + this.datasetName + this.datasetEnding);
-		
-		CSVParser parser = new CSVParserBuilder()
+	public CSVParser createCSVParser() {
+		return new CSVParserBuilder()
 				.withSeparator(this.valueSeparator)
 				.withQuoteChar(this.valueQuote)
 				.withEscapeChar(this.valueEscape)
@@ -72,13 +74,31 @@ public class DatasetDescriptor implements Serializable {
 				.withIgnoreLeadingWhiteSpace(this.valueIgnoreLeadingWhitespace)
 				.withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
 				.build();
+	}
+
+	public CSVReader createCSVReader() throws IOException {
+		Path path = Paths.get(this.datasetPath + this.datasetName + this.datasetEnding);
 		
 		BufferedReader buffer = Files.newBufferedReader(path, this.charset);
-		CSVReader reader = new CSVReaderBuilder(buffer).withCSVParser(parser).build();
+		CSVReader reader = new CSVReaderBuilder(buffer).withCSVParser(this.createCSVParser()).build();
 		
 		if (this.fileHasHeader)
 			reader.readNext();
 		
 		return reader;
 	}
+
+	public MappedCSVReader createMappedCSVReader(Executor executor, int parallelism) throws IOException {
+		Path path = Paths.get(this.datasetPath + this.datasetName + this.datasetEnding);
+		
+		return new MappedCSVReader(path, this, executor, parallelism, MappedCSVReader.DEFAULT_CHUNK_SIZE);
+	}
+
+	public TailingCSVReader createTailingCSVReader() throws IOException {
+		// A directory with the dataset's name holds its segments; otherwise the dataset file itself is followed
+		Path directory = Paths.get(this.datasetPath + this.datasetName);
+		Path path = Files.isDirectory(directory) ? directory : Paths.get(this.datasetPath + this.datasetName + this.datasetEnding);
+		
+		return new TailingCSVReader(path, this, TailingCSVReader.DEFAULT_CHUNK_SIZE);
+	}
 }
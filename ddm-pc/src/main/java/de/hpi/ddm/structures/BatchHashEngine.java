@@ -0,0 +1,157 @@
+package de.hpi.ddm.structures;
+
+import java.util.Arrays;
+
+public class BatchHashEngine {
+
+	public static final int BATCH_SIZE = 8;		// The number of candidates that callers should hash per batch
+	public static final int MAX_LENGTH = 55;	// One SHA-256 block holds the message, the 0x80 terminator and the 8 byte length
+	public static final int WORDS_PER_DIGEST = HashEngine.DIGEST_LENGTH / 8;
+
+	private static final int[] IV = {
+		0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+	};
+
+	private static final int[] K = {
+		0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+		0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+		0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+		0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+		0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+		0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+		0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+		0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+	};
+
+	private static final ThreadLocal<BatchHashEngine> engines = ThreadLocal.withInitial(BatchHashEngine::new);
+
+	// The message schedule of the current message
+	private final int[] w = new int[64];
+
+	// The padding of the most recently hashed message length, which is the same for all candidates of a search
+	private int paddedLength = -1;
+	private final int[] padding = new int[16];
+
+	/**
+	 * Retrieve the {@code BatchHashEngine} of the calling thread; engines are not thread-safe and must not be shared.
+	 * @return the {@code BatchHashEngine} that is bound to the calling thread
+	 */
+	public static BatchHashEngine get() {
+		return engines.get();
+	}
+
+	private BatchHashEngine() {
+	}
+
+	/**
+	 * Hash all messages with SHA-256. Callers collect {@link #BATCH_SIZE} candidates per batch, which amortizes the call
+	 * and the padding, because all candidates of a search share their length. Every message must fit into a single
+	 * SHA-256 block, i.e., be at most {@link #MAX_LENGTH} bytes long. The digests are written as four big-endian
+	 * longs each, so the digest of {@code in[i]} occupies {@code outDigests[4 * i]} to {@code outDigests[4 * i + 3]}.
+	 * @param in the messages to be hashed
+	 * @param outDigests the array that receives the digests; at least four times as long as {@code in}
+	 * @throws IllegalArgumentException if a message is longer than {@link #MAX_LENGTH} bytes
+	 */
+	public void hashBatch(byte[][] in, long[] outDigests) {
+		this.hashBatch(in, in.length, outDigests);
+	}
+
+	/**
+	 * Hash the first {@code count} messages with SHA-256; see {@link #hashBatch(byte[][], long[])}.
+	 * @param in the messages to be hashed
+	 * @param count the number of leading messages to be hashed
+	 * @param outDigests the array that receives the digests; at least four times as long as {@code count}
+	 * @throws IllegalArgumentException if a message is longer than {@link #MAX_LENGTH} bytes
+	 */
+	public void hashBatch(byte[][] in, int count, long[] outDigests) {
+		for (int i = 0; i < count; i++) {
+			this.load(in[i]);
+			this.compress(outDigests, i * WORDS_PER_DIGEST);
+		}
+	}
+
+	private void load(byte[] message) {
+		int length = message.length;
+		if (length != this.paddedLength) {
+			if (length > MAX_LENGTH)
+				throw new IllegalArgumentException("Messages of " + length + " bytes do not fit into one SHA-256 block");
+			this.pad(length);
+		}
+
+		// Copy the padding and overwrite its leading words with the big-endian message bytes
+		final int[] w = this.w;
+		System.arraycopy(this.padding, 0, w, 0, 16);
+		int t = 0;
+		for (int i = 0; i + 4 <= length; i += 4, t++)
+			w[t] = (message[i] << 24) | ((message[i + 1] & 0xff) << 16) | ((message[i + 2] & 0xff) << 8) | (message[i + 3] & 0xff);
+		for (int i = t * 4; i < length; i++)
+			w[t] |= (message[i] & 0xff) << (24 - 8 * (i & 3));
+	}
+
+	private void pad(int length) {
+		Arrays.fill(this.padding, 0);
+		this.padding[length >> 2] = 0x80 << (24 - 8 * (length & 3));
+		this.padding[15] = length * 8;
+		this.paddedLength = length;
+	}
+
+	// Compress the single block in the message schedule with the working variables in locals, which saves the
+	// buffering, padding and byte conversions of MessageDigest
+	private void compress(long[] outDigests, int out) {
+		final int[] w = this.w;
+		for (int t = 16; t < 64; t++) {
+			int w2 = w[t - 2];
+			int w15 = w[t - 15];
+			w[t] = (Integer.rotateRight(w2, 17) ^ Integer.rotateRight(w2, 19) ^ (w2 >>> 10)) + w[t - 7]
+					+ (Integer.rotateRight(w15, 7) ^ Integer.rotateRight(w15, 18) ^ (w15 >>> 3)) + w[t - 16];
+		}
+
+		int a = IV[0], b = IV[1], c = IV[2], d = IV[3], e = IV[4], f = IV[5], g = IV[6], h = IV[7];
+		for (int t = 0; t < 64; t++) {
+			int t1 = h + (Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25)) + ((e & f) ^ (~e & g)) + K[t] + w[t];
+			int t2 = (Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22)) + ((a & b) ^ (a & c) ^ (b & c));
+			h = g;
+			g = f;
+			f = e;
+			e = d + t1;
+			d = c;
+			c = b;
+			b = a;
+			a = t1 + t2;
+		}
+
+		outDigests[out] = word(a + IV[0], b + IV[1]);
+		outDigests[out + 1] = word(c + IV[2], d + IV[3]);
+		outDigests[out + 2] = word(e + IV[4], f + IV[5]);
+		outDigests[out + 3] = word(g + IV[6], h + IV[7]);
+	}
+
+	private static long word(int high, int low) {
+		return ((long) high << 32) | (low & 0xffffffffL);
+	}
+
+	/**
+	 * Convert the four big-endian longs of a digest back into its 32 bytes.
+	 * @param digests the array holding the digest's words
+	 * @param offset the index of the digest's first word
+	 * @return a new 32 byte array holding the digest
+	 */
+	public static byte[] toBytes(long[] digests, int offset) {
+		byte[] digest = new byte[HashEngine.DIGEST_LENGTH];
+		for (int i = 0; i < HashEngine.DIGEST_LENGTH; i++)
+			digest[i] = (byte) (digests[offset + i / 8] >>> (56 - 8 * (i % 8)));
+		return digest;
+	}
+
+	/**
+	 * Convert a 32 byte digest into the four big-endian longs that {@link #hashBatch(byte[][], long[])} produces.
+	 * @param digest the binary digest
+	 * @return a new array holding the digest's four words
+	 */
+	public static long[] toWords(byte[] digest) {
+		long[] words = new long[WORDS_PER_DIGEST];
+		for (int i = 0; i < HashEngine.DIGEST_LENGTH; i++)
+			words[i / 8] = (words[i / 8] << 8) | (digest[i] & 0xffL);
+		return words;
+	}
+}
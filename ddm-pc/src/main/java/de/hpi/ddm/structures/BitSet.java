@@ -174,6 +174,24 @@ public class BitSet implements Cloneable, Serializable {
 		return (this.words[wordIndex] & (1L << bitIndex)) != 0;
 	}
 
+	/**
+	 * Return the word at the specified word index, i.e. the 64 bits from index {@code 64 * wordIndex} on.
+	 * @param wordIndex of the word to be returned
+	 * @return the word's bits
+	 */
+	public long getWord(int wordIndex) {
+		return this.words[wordIndex];
+	}
+
+	/**
+	 * Set all bits of the word at the specified word index to {@code true} that are set in the mask.
+	 * @param wordIndex of the word to be changed
+	 * @param mask of the bits to be set
+	 */
+	public void orWord(int wordIndex, long mask) {
+		this.words[wordIndex] |= mask;
+	}
+
 	/**
 	 * Returns the index of the first bit that is set to {@code true} that occurs at or after the specified starting index. 
 	 * If no such bit exists then {@code -1} is returned.
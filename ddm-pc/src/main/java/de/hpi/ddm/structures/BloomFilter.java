@@ -5,6 +5,7 @@ import java.util.List;
 public class BloomFilter {
 
 	public static int DEFAULT_SIZE = 167772160; // = 20 MB
+	public static final int BITS_PER_DIGEST = 16; // With four bits per digest in one word, about 0.5% of the misses pass the filter
 	
 	private final BitSet bits;
 	private final int size;
@@ -25,6 +26,19 @@ public class BloomFilter {
 			this.bits.randomize();
 	}
 	
+	/**
+	 * Construct a new {@code BloomFilter} for SHA-256 digests with {@link #BITS_PER_DIGEST} bits per expected digest.
+	 * Digests are uniformly distributed, so their words serve directly as hash values: the second word selects one
+	 * word of the filter and the third word four bits within it, so a test reads a single word. The filter of 1000
+	 * digests takes 2 KB and that of a million digests 2 MB, which keeps it in the L1 or L2 cache respectively.
+	 * @param expectedSize the number of digests that the filter is sized for
+	 * @return a new {@code BloomFilter} for digests
+	 */
+	public static BloomFilter forDigests(int expectedSize) {
+		long bitSize = Math.max(64, (long) expectedSize * BITS_PER_DIGEST);
+		return new BloomFilter((int) Math.min(bitSize, Integer.MAX_VALUE - 63));
+	}
+	
 	/**
 	 * Retrieves the BitSet that stores the elements of this BloomFilter
 	 * @return the BitSet that stores the elements of this BloomFilter
@@ -82,6 +96,44 @@ public class BloomFilter {
 		return this.bits.get(bucket);
 	}
 	
+	/**
+	 * Add the 32 byte digest to the BloomFilter.
+	 * @param digest the digest to be added
+	 */
+	public void addDigest(byte[] digest) {
+		this.addDigest(BatchHashEngine.toWords(digest), 0);
+	}
+	
+	/**
+	 * Add the digest that is given as four big-endian longs at the given offset.
+	 * @param digests the array holding the digest's words
+	 * @param offset the index of the digest's first word
+	 */
+	public void addDigest(long[] digests, int offset) {
+		this.bits.orWord(this.digestWord(digests[offset + 1]), digestMask(digests[offset + 2]));
+	}
+	
+	/**
+	 * Test if this BloomFilter might contain the digest that is given as four big-endian longs at the given offset,
+	 * which is the format of {@link BatchHashEngine#hashBatch(byte[][], long[])}.
+	 * @param digests the array holding the digest's words
+	 * @param offset the index of the digest's first word
+	 * @return false if the digest was certainly not added; true if it was probably added
+	 */
+	public boolean mightContainDigest(long[] digests, int offset) {
+		long mask = digestMask(digests[offset + 2]);
+		return (this.bits.getWord(this.digestWord(digests[offset + 1])) & mask) == mask;
+	}
+	
+	// Map the upper half of the word onto the filter's words by multiplication, which needs no power of two size
+	private int digestWord(long hash) {
+		return (int) (((hash >>> 32) * this.bits.physicalLength()) >>> 32);
+	}
+	
+	private static long digestMask(long hash) {
+		return (1L << hash) | (1L << (hash >>> 6)) | (1L << (hash >>> 12)) | (1L << (hash >>> 18));
+	}
+	
 	private void set(int bucket) {
 		this.bits.set(bucket);
 	}
@@ -0,0 +1,107 @@
+package de.hpi.ddm.structures;
+
+public class CombinationGenerator {
+
+	private final byte[] symbols;
+	private final int[] digits;
+	private final byte[] candidate;
+	private final long size;
+	private long index;
+
+	/**
+	 * Construct a new {@code CombinationGenerator} that enumerates all {@code symbols.length^length} candidates of
+	 * the given length like an odometer: the candidate buffer is reused and each call to {@link #next()} only
+	 * touches the positions that actually roll over. The generator starts at the first candidate, i.e., index 0.
+	 * @param symbols the alphabet to draw the candidate's characters from
+	 * @param length the length of each candidate
+	 * @throws ArithmeticException if the number of candidates does not fit into a long
+	 */
+	public CombinationGenerator(byte[] symbols, int length) {
+		this.symbols = symbols;
+		this.digits = new int[length];
+		this.candidate = new byte[length];
+		this.size = size(symbols.length, length);
+
+		if (this.size > 0)
+			this.seek(0);
+	}
+
+	/**
+	 * Calculate the number of candidates of the given length over an alphabet of the given size.
+	 * @param numSymbols the size of the alphabet
+	 * @param length the length of each candidate
+	 * @return {@code numSymbols^length}
+	 * @throws ArithmeticException if the number of candidates does not fit into a long
+	 */
+	public static long size(int numSymbols, int length) {
+		long size = 1;
+		for (int i = 0; i < length; i++)
+			size = Math.multiplyExact(size, numSymbols);
+		return size;
+	}
+
+	/**
+	 * Retrieve the number of candidates this generator enumerates.
+	 * @return the number of candidates
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Retrieve the index of the current candidate.
+	 * @return the index of the candidate that is currently held in the buffer
+	 */
+	public long index() {
+		return this.index;
+	}
+
+	/**
+	 * Retrieve the buffer that holds the current candidate.
+	 * @return the candidate buffer, which is the same instance for the entire lifetime of this generator
+	 */
+	public byte[] current() {
+		return this.candidate;
+	}
+
+	/**
+	 * Position the generator at the candidate with the given index, so that one candidate space can be split into
+	 * ranges that are enumerated independently. The last position of a candidate is its least significant digit.
+	 * @param index the index of the candidate to move to
+	 * @throws IndexOutOfBoundsException if the index is negative or not smaller than {@link #size()}
+	 */
+	public void seek(long index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index " + index + " is out of range [0, " + this.size + ")");
+
+		long remainder = index;
+		for (int position = this.digits.length - 1; position >= 0; position--) {
+			int digit = (int) (remainder % this.symbols.length);
+			remainder /= this.symbols.length;
+
+			this.digits[position] = digit;
+			this.candidate[position] = this.symbols[digit];
+		}
+		this.index = index;
+	}
+
+	/**
+	 * Advance the buffer to the next candidate.
+	 * @return true if the buffer holds a new candidate; false if all candidates have been enumerated
+	 */
+	public boolean next() {
+		if (this.index + 1 >= this.size)
+			return false;
+
+		int position = this.digits.length - 1;
+		while (this.digits[position] == this.symbols.length - 1) {
+			this.digits[position] = 0;
+			this.candidate[position] = this.symbols[0];
+			position--;
+		}
+		this.digits[position]++;
+		this.candidate[position] = this.symbols[this.digits[position]];
+		this.index++;
+		return true;
+	}
+}
@@ -0,0 +1,396 @@
+package de.hpi.ddm.structures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+public class DigestCache {
+
+	private static final int MAGIC = 0x44444d43;			// "DDMC"
+	private static final int VERSION = 1;
+	public static final int MAX_ALPHABET_LENGTH = 11;		// 11! entries of 8 bytes are the largest table that fits into one mapped buffer
+
+	private static final int HEADER_LENGTH = 64;
+	private static final int ALPHABET_OFFSET = 12;			// Magic, version and alphabet length come first
+	private static final int COUNT_OFFSET = ALPHABET_OFFSET + 16;
+	private static final int CHECKSUM_OFFSET = COUNT_OFFSET + 8;
+	private static final int HEADER_CHECKSUM_OFFSET = HEADER_LENGTH - 8;
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	private final byte[] symbols;
+	private final long[] factorials;	// i! at index i
+	private final long rankMask;		// The low bits of an entry that hold the rank; the high bits hold the digest prefix
+	private final LongBuffer entries;
+
+	// The hint digests of the node's index are looked up once for all of its hint units and sorted into slices
+	private DigestIndex lookedUp = new DigestIndex();							// The hint digests that have been looked up
+	private final Map<String, Map<String, String>> slices = new HashMap<>();	// The found hints by the character they lack and their prefix
+	private int sliceLength = -1;												// The prefix length of the slices
+	private long slicedVersion = -1;											// The hints version whose digests have all been looked up
+
+	private DigestCache(String alphabet, LongBuffer entries) {
+		this.symbols = HashEngine.toBytes(alphabet);
+		this.factorials = factorials(alphabet.length());
+		this.rankMask = rankMask(this.factorials[alphabet.length()]);
+		this.entries = entries;
+	}
+
+	/**
+	 * Test if a {@code DigestCache} can be built for the given alphabet.
+	 * @param alphabet the password characters
+	 * @return true if the alphabet is ASCII and has between 2 and {@link #MAX_ALPHABET_LENGTH} characters
+	 */
+	public static boolean supports(String alphabet) {
+		return (alphabet.length() >= 2) && (alphabet.length() <= MAX_ALPHABET_LENGTH) && alphabet.chars().allMatch(c -> c <= 0x7f);
+	}
+
+	/**
+	 * Determine the file that holds the {@code DigestCache} of an alphabet.
+	 * @param directory the directory of all caches
+	 * @param alphabet the password characters
+	 * @return the cache file, which is named after the hex encoded alphabet
+	 */
+	public static Path path(Path directory, String alphabet) {
+		return directory.resolve("hints-" + HashEngine.toHex(HashEngine.toBytes(alphabet)) + ".digests");
+	}
+
+	/**
+	 * Map the cache file of an alphabet into memory. The file is only used if its header matches the alphabet and its
+	 * checksum and the entries match the checksum in the header; a file that was cut off or overwritten is ignored.
+	 * @param directory the directory of all caches
+	 * @param alphabet the password characters
+	 * @return the alphabet's {@code DigestCache} or null if there is no valid cache file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static DigestCache open(Path directory, String alphabet) throws IOException {
+		Path path = path(directory, alphabet);
+		if (!supports(alphabet) || !Files.exists(path))
+			return null;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long count = factorials(alphabet.length())[alphabet.length()];
+			if (channel.size() != HEADER_LENGTH + count * 8)
+				return null;
+
+			// The mapping stays valid after the channel is closed
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			ByteBuffer header = buffer.duplicate();
+			header.limit(HEADER_LENGTH);
+			long checksum = buffer.getLong(CHECKSUM_OFFSET);
+			if (!header.equals(header(alphabet, count, checksum)))
+				return null;
+
+			buffer.position(HEADER_LENGTH);
+			ByteBuffer body = buffer.slice();
+			CRC32 crc = new CRC32();
+			crc.update(body.duplicate());
+			if (crc.getValue() != checksum)
+				return null;
+			return new DigestCache(alphabet, body.asLongBuffer());
+		}
+	}
+
+	/**
+	 * Determine the heap that building the cache of an alphabet needs: each part of the cache, i.e. the entries of one
+	 * missing character, is sorted on the heap, which takes 8 * (n - 1)! bytes per part for an alphabet of n
+	 * characters, e.g. about 29 MB for 11 characters; the parts are then merged into the file off the heap.
+	 * @param alphabet the password characters
+	 * @return the bytes of heap that one part needs
+	 */
+	public static long partSize(String alphabet) {
+		return 8 * factorials(alphabet.length() - 1)[alphabet.length() - 1];
+	}
+
+	/**
+	 * Build the cache file of an alphabet and map it into memory. The cache holds one entry for each permutation of
+	 * each subset of the alphabet that lacks one character, i.e. for each candidate of the hint search. The entries
+	 * are hashed on the given pool, one part per missing character, and each part is sorted by digest into a run
+	 * file; only as many parts are hashed at once as the free heap holds (see {@link #partSize(String)}). The sorted
+	 * runs are then merged into a temporary file that replaces the cache file once it is complete.
+	 * @param directory the directory of all caches, which is created if necessary
+	 * @param alphabet the password characters
+	 * @param pool the executor that hashes the parts
+	 * @return the alphabet's {@code DigestCache}
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalStateException if the heap cannot hold a single part
+	 */
+	public static DigestCache build(Path directory, String alphabet, Executor pool) throws IOException {
+		if (!supports(alphabet))
+			throw new IllegalArgumentException("No digest cache can be built for the alphabet " + alphabet);
+
+		Runtime runtime = Runtime.getRuntime();
+		long freeHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		int concurrentParts = (int) Math.min(alphabet.length(), freeHeap / 2 / partSize(alphabet));
+		if (concurrentParts < 1)
+			throw new IllegalStateException("Building the digest cache of the alphabet " + alphabet + " needs " + partSize(alphabet) + " bytes of heap per part, but only " + freeHeap + " bytes are free");
+
+		byte[] symbols = HashEngine.toBytes(alphabet);
+		long[] factorials = factorials(symbols.length);
+		long rankMask = rankMask(factorials[symbols.length]);
+		Files.createDirectories(directory);
+		Path path = path(directory, alphabet);
+		List<Path> runs = new ArrayList<>(symbols.length);
+		Path temp = null;
+		try {
+			for (int missing = 0; missing < symbols.length; missing++)
+				runs.add(Files.createTempFile(directory, path.getFileName().toString(), ".run" + missing));
+			for (int first = 0; first < symbols.length; first += concurrentParts) {
+				List<CompletableFuture<Void>> parts = new ArrayList<>(concurrentParts);
+				for (int missing = first; missing < Math.min(symbols.length, first + concurrentParts); missing++) {
+					final int part = missing;
+					parts.add(CompletableFuture.runAsync(() -> {
+						long[] entries = new long[(int) factorials[symbols.length - 1]];
+						hash(symbols, part, factorials, rankMask, entries);
+						Arrays.sort(entries);
+						write(runs.get(part), entries);
+					}, pool));
+				}
+				CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[parts.size()])).join();
+			}
+
+			temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+			merge(runs, temp, alphabet, factorials[symbols.length]);
+			Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			if (temp != null)
+				Files.deleteIfExists(temp);
+			throw e;
+		} finally {
+			for (Path run : runs)
+				Files.deleteIfExists(run);
+		}
+		return open(directory, alphabet);
+	}
+
+	private static void write(Path run, long[] entries) {
+		try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+			ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+			for (int i = 0; i < entries.length; i++) {
+				chunk.putLong(entries[i]);
+				if (!chunk.hasRemaining() || (i == entries.length - 1)) {
+					chunk.flip();
+					while (chunk.hasRemaining())
+						channel.write(chunk);
+					chunk.clear();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Merge the sorted runs, which are mapped and thus read off the heap, into the cache file
+	private static void merge(List<Path> runs, Path file, String alphabet, long count) throws IOException {
+		LongBuffer[] heads = new LongBuffer[runs.size()];
+		for (int i = 0; i < heads.length; i++) {
+			try (FileChannel channel = FileChannel.open(runs.get(i), StandardOpenOption.READ)) {
+				heads[i] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asLongBuffer();
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			CRC32 crc = new CRC32();
+			ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+			channel.position(HEADER_LENGTH);
+			for (long written = 0; written < count; written++) {
+				int next = -1;
+				for (int i = 0; i < heads.length; i++)
+					if (heads[i].hasRemaining() && ((next < 0) || (heads[i].get(heads[i].position()) < heads[next].get(heads[next].position()))))
+						next = i;
+				chunk.putLong(heads[next].get());
+				if (!chunk.hasRemaining() || (written == count - 1)) {
+					chunk.flip();
+					crc.update(chunk.duplicate());
+					while (chunk.hasRemaining())
+						channel.write(chunk);
+					chunk.clear();
+				}
+			}
+			ByteBuffer header = header(alphabet, count, crc.getValue());
+			while (header.hasRemaining())
+				channel.write(header, header.position());
+			channel.force(true);
+		}
+	}
+
+	// Hash all permutations of the alphabet without its missing-th character in lexicographic order, so that each
+	// permutation's rank among them is simply the part's first rank plus its position in that order
+	private static void hash(byte[] symbols, int missing, long[] factorials, long rankMask, long[] entries) {
+		BatchHashEngine engine = BatchHashEngine.get();
+		byte[] remaining = remaining(symbols, missing);
+		int[] order = new int[remaining.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		byte[][] batch = new byte[BatchHashEngine.BATCH_SIZE][remaining.length];
+		long[] digests = new long[BatchHashEngine.BATCH_SIZE * BatchHashEngine.WORDS_PER_DIGEST];
+		long first = missing * factorials[remaining.length];
+		long rank = first;
+		boolean more = true;
+		while (more) {
+			int count = 0;
+			while (more && count < BatchHashEngine.BATCH_SIZE) {
+				for (int i = 0; i < order.length; i++)
+					batch[count][i] = remaining[order[i]];
+				count++;
+				more = nextPermutation(order);
+			}
+			engine.hashBatch(batch, count, digests);
+			for (int ii = 0; ii < count; ii++, rank++)
+				entries[(int) (rank - first)] = (digests[ii * BatchHashEngine.WORDS_PER_DIGEST] & ~rankMask) | rank;
+		}
+	}
+
+	/**
+	 * Look up the plaintext of a hint digest. Entries only store a prefix of their digest, so every entry whose prefix
+	 * matches is hashed again to confirm it.
+	 * @param digest the 32 byte digest
+	 * @return the permutation that hashes to the digest or null if the digest is no hint of this alphabet
+	 */
+	public String lookup(byte[] digest) {
+		long key = BatchHashEngine.toWords(digest)[0] & ~this.rankMask;
+		int low = 0;
+		int high = this.entries.limit();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.entries.get(middle) < key)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		HashEngine engine = HashEngine.get();
+		byte[] candidate = new byte[this.symbols.length - 1];
+		for (int i = low; (i < this.entries.limit()) && ((this.entries.get(i) & ~this.rankMask) == key); i++) {
+			this.unrank(this.entries.get(i) & this.rankMask, candidate);
+			if (engine.matches(candidate, candidate.length, digest))
+				return new String(candidate, StandardCharsets.US_ASCII);
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieve the hints of one hint unit, i.e. the hints that lack the given character and start with the given
+	 * prefix. The first unit that asks after the hints have grown looks up all digests that have not been looked up
+	 * yet and sorts the found hints into slices by the character they lack and their first prefix-length characters;
+	 * the other units of the node then only take their slices.
+	 * @param hints the node's hint digests
+	 * @param version the hints version that the slice must cover
+	 * @param character the character that the unit's hints lack
+	 * @param prefix the prefix of the unit's hints
+	 * @return the plaintexts of the unit's hints by their hex digests, including the hints whose plaintexts are known
+	 */
+	public synchronized Map<String, String> slice(DigestIndex hints, long version, String character, String prefix) {
+		if (prefix.length() != this.sliceLength) {
+			this.lookedUp = new DigestIndex();
+			this.slices.clear();
+			this.sliceLength = prefix.length();
+			this.slicedVersion = -1;
+		}
+		if (version > this.slicedVersion) {
+			hints.forEach((digest, plaintext) -> {
+				if (!this.lookedUp.add(digest))
+					return;
+				String permutation = this.lookup(digest);
+				if (permutation != null)
+					this.slices.computeIfAbsent(this.sliceKey(permutation), key -> new HashMap<>()).put(HashEngine.toHex(digest), permutation);
+			});
+			this.slicedVersion = version;
+		}
+		return Collections.unmodifiableMap(this.slices.getOrDefault(character + prefix, Collections.emptyMap()));
+	}
+
+	private String sliceKey(String permutation) {
+		for (byte symbol : this.symbols)
+			if (permutation.indexOf(symbol) < 0)
+				return (char) symbol + permutation.substring(0, this.sliceLength);
+		throw new IllegalArgumentException("The permutation " + permutation + " lacks no character of the alphabet");
+	}
+
+	// Decode a rank into the character that the permutation lacks and the permutation's Lehmer code
+	private void unrank(long rank, byte[] candidate) {
+		long permutationRank = rank % this.factorials[candidate.length];
+		byte[] remaining = remaining(this.symbols, (int) (rank / this.factorials[candidate.length]));
+		int size = remaining.length;
+		for (int i = 0; i < candidate.length; i++) {
+			long factorial = this.factorials[candidate.length - 1 - i];
+			int index = (int) (permutationRank / factorial);
+			permutationRank %= factorial;
+			candidate[i] = remaining[index];
+			System.arraycopy(remaining, index + 1, remaining, index, size - index - 1);
+			size--;
+		}
+	}
+
+	private static byte[] remaining(byte[] symbols, int missing) {
+		byte[] remaining = new byte[symbols.length - 1];
+		System.arraycopy(symbols, 0, remaining, 0, missing);
+		System.arraycopy(symbols, missing + 1, remaining, missing, symbols.length - missing - 1);
+		return remaining;
+	}
+
+	// Advance the array to its lexicographically next permutation; false if it was the last one
+	private static boolean nextPermutation(int[] order) {
+		int i = order.length - 2;
+		while ((i >= 0) && (order[i] >= order[i + 1]))
+			i--;
+		if (i < 0)
+			return false;
+		int j = order.length - 1;
+		while (order[j] <= order[i])
+			j--;
+		swap(order, i, j);
+		for (int left = i + 1, right = order.length - 1; left < right; left++, right--)
+			swap(order, left, right);
+		return true;
+	}
+
+	private static void swap(int[] order, int i, int j) {
+		int temp = order[i];
+		order[i] = order[j];
+		order[j] = temp;
+	}
+
+	private static long[] factorials(int n) {
+		long[] factorials = new long[n + 1];
+		factorials[0] = 1;
+		for (int i = 1; i <= n; i++)
+			factorials[i] = factorials[i - 1] * i;
+		return factorials;
+	}
+
+	private static long rankMask(long count) {
+		return (Long.highestOneBit(Math.max(1, count - 1)) << 1) - 1;
+	}
+
+	private static ByteBuffer header(String alphabet, long count, long checksum) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(alphabet.length());
+		header.put(HashEngine.toBytes(alphabet));
+		header.putLong(COUNT_OFFSET, count);
+		header.putLong(CHECKSUM_OFFSET, checksum);
+		CRC32 crc = new CRC32();
+		crc.update(header.array(), 0, HEADER_CHECKSUM_OFFSET);
+		header.putLong(HEADER_CHECKSUM_OFFSET, crc.getValue());
+		header.clear();
+		return header;
+	}
+}
@@ -0,0 +1,103 @@
+package de.hpi.ddm.structures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionIdProvider;
+
+public class DigestCacheLoader implements Extension {
+
+	////////////////////////
+	// Extension Provider //
+	////////////////////////
+
+	public static class Provider extends AbstractExtensionId<DigestCacheLoader> implements ExtensionIdProvider {
+
+		public static final Provider INSTANCE = new Provider();
+
+		private Provider() {
+		}
+
+		@Override
+		public Provider lookup() {
+			return INSTANCE;
+		}
+
+		@Override
+		public DigestCacheLoader createExtension(ExtendedActorSystem system) {
+			return new DigestCacheLoader(system);
+		}
+	}
+
+	/**
+	 * Retrieve the {@code DigestCacheLoader} of the given ActorSystem, which all local actors share.
+	 * @param system the local ActorSystem
+	 * @return the ActorSystem's {@code DigestCacheLoader}
+	 */
+	public static DigestCacheLoader get(ActorSystem system) {
+		return Provider.INSTANCE.get(system);
+	}
+
+	///////////
+	// State //
+	///////////
+
+	// Reading and writing the cache files blocks, so it runs on Akka's dispatcher for blocking I/O
+	private static final String LOADING_DISPATCHER = "akka.actor.default-blocking-io-dispatcher";
+
+	private final ActorSystem system;
+	private final Map<String, CompletableFuture<DigestCache>> caches = new HashMap<>();
+
+	private DigestCacheLoader(ActorSystem system) {
+		this.system = system;
+	}
+
+	/**
+	 * Load the {@link DigestCache} of an alphabet once per ActorSystem: its cache file is mapped if it is valid and
+	 * built otherwise, which takes as long as hashing all hint candidates once.
+	 * @param directory the directory of all caches; empty if caching is disabled
+	 * @param alphabet the password characters
+	 * @param computePool the executor that hashes the candidates if the cache must be built
+	 * @return the future cache, which is null if caching is disabled, the alphabet is not supported or the cache
+	 *         could neither be mapped nor built
+	 */
+	public synchronized CompletableFuture<DigestCache> load(String directory, String alphabet, Executor computePool) {
+		if (directory.isEmpty() || !DigestCache.supports(alphabet))
+			return CompletableFuture.completedFuture(null);
+
+		return this.caches.computeIfAbsent(alphabet, key -> CompletableFuture
+				.supplyAsync(() -> this.openOrBuild(Paths.get(directory), alphabet, computePool), this.system.dispatchers().lookup(LOADING_DISPATCHER))
+				.exceptionally(failure -> {
+					this.system.log().error(failure, "Cannot use the digest cache of the alphabet {}, so its hints are hashed", alphabet);
+					return null;
+				}));
+	}
+
+	private DigestCache openOrBuild(Path directory, String alphabet, Executor computePool) {
+		try {
+			DigestCache cache = DigestCache.open(directory, alphabet);
+			if (cache != null) {
+				this.system.log().info("Mapped the digest cache {}", DigestCache.path(directory, alphabet));
+				return cache;
+			}
+
+			this.system.log().info("Building the digest cache {}", DigestCache.path(directory, alphabet));
+			long startTime = System.currentTimeMillis();
+			cache = DigestCache.build(directory, alphabet, computePool);
+			this.system.log().info("Built the digest cache {} in {} ms", DigestCache.path(directory, alphabet), System.currentTimeMillis() - startTime);
+			return cache;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package de.hpi.ddm.structures;
+
+import java.util.function.BiConsumer;
+
+public class DigestIndex {
+
+	public static final int DEFAULT_EXPECTED_SIZE = 1024;
+
+	private final static int WORDS_PER_DIGEST = HashEngine.DIGEST_LENGTH / 8;
+	private final static float LOAD_FACTOR = 0.5f;
+
+	// The slots of the table, which are replaced as a whole when the table grows, so that readers always see
+	// keys, values and mask of the same table
+	private static final class Table {
+		private final long[] keys;		// Four big-endian words per slot; an all-zero slot is empty
+		private final String[] values;	// The plaintext of each slot's digest or null if it is not (yet) known
+		private final int mask;
+		private final int maxFill;
+
+		private Table(int capacity) {
+			this.keys = new long[capacity * WORDS_PER_DIGEST];
+			this.values = new String[capacity];
+			this.mask = capacity - 1;
+			this.maxFill = (int) (capacity * LOAD_FACTOR);
+		}
+	}
+
+	private volatile Table table;
+	private int size;
+	private int resolved;
+
+	private boolean containsZero;	// The all-zero digest cannot be stored in the table, because it marks empty slots
+	private String zeroValue;
+
+	/**
+	 * Construct a new {@code DigestIndex} with the default capacity.
+	 */
+	public DigestIndex() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Construct a new {@code DigestIndex} that stores SHA-256 digests as four longs each in a flat open-addressing
+	 * table with linear probing. Because digests are uniformly distributed, their first word serves directly as the
+	 * slot hash. Every digest can optionally be mapped to its plaintext.
+	 * <p>
+	 * A {@code DigestIndex} may be read concurrently while a single thread adds digests: entries are never moved
+	 * within a table and a grown table is only published once it is complete, so readers see at least every digest
+	 * that was added before they synchronized with the writer (e.g. through a volatile version counter) and never
+	 * report a digest that is not contained.
+	 * @param expectedSize number of digests that can be stored without resizing the table
+	 */
+	public DigestIndex(int expectedSize) {
+		this.table = new Table(capacityFor(expectedSize));
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / LOAD_FACTOR)) - 1) << 1;
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Too many digests for a DigestIndex: " + expectedSize);
+		return capacity;
+	}
+
+	/**
+	 * Read the i-th big-endian long of the digest that starts at the given offset.
+	 */
+	private static long word(byte[] digest, int offset, int i) {
+		int start = offset + i * 8;
+		long word = 0;
+		for (int b = 0; b < 8; b++)
+			word = (word << 8) | (digest[start + b] & 0xffL);
+		return word;
+	}
+
+	/**
+	 * Find the slot of the given digest words.
+	 * @return the slot that holds the digest or -(slot + 1) with the empty slot where it would be inserted
+	 */
+	private static int find(Table table, long w0, long w1, long w2, long w3) {
+		final long[] keys = table.keys;
+		int slot = (int) w0 & table.mask;
+		while (true) {
+			int base = slot * WORDS_PER_DIGEST;
+			long k0 = keys[base];
+			long k1 = keys[base + 1];
+			long k2 = keys[base + 2];
+			long k3 = keys[base + 3];
+			if (k0 == w0 && k1 == w1 && k2 == w2 && k3 == w3)
+				return slot;
+			if ((k0 | k1 | k2 | k3) == 0)
+				return -(slot + 1);
+			slot = (slot + 1) & table.mask;
+		}
+	}
+
+	/**
+	 * Retrieve the number of digests in this {@code DigestIndex}.
+	 * @return the number of digests
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Retrieve the number of digests in this {@code DigestIndex} that have been mapped to a plaintext.
+	 * @return the number of digests with a known plaintext
+	 */
+	public int resolved() {
+		return this.resolved;
+	}
+
+	/**
+	 * Test if this {@code DigestIndex} contains the digest.
+	 * @param digest the 32 byte digest to be tested
+	 * @return true if the digest is contained
+	 */
+	public boolean contains(byte[] digest) {
+		return this.contains(digest, 0);
+	}
+
+	/**
+	 * Test if this {@code DigestIndex} contains the 32 byte digest that starts at the given offset.
+	 * @param digest the array holding the digest to be tested
+	 * @param offset the index of the digest's first byte
+	 * @return true if the digest is contained
+	 */
+	public boolean contains(byte[] digest, int offset) {
+		long w0 = word(digest, offset, 0), w1 = word(digest, offset, 1), w2 = word(digest, offset, 2), w3 = word(digest, offset, 3);
+		if ((w0 | w1 | w2 | w3) == 0)
+			return this.containsZero;
+		return find(this.table, w0, w1, w2, w3) >= 0;
+	}
+
+	/**
+	 * Test if this {@code DigestIndex} contains the digest that is given as four big-endian longs at the given
+	 * offset, which is the format of {@link BatchHashEngine#hashBatch(byte[][], long[])}.
+	 * @param digests the array holding the digest's words
+	 * @param offset the index of the digest's first word
+	 * @return true if the digest is contained
+	 */
+	public boolean contains(long[] digests, int offset) {
+		long w0 = digests[offset], w1 = digests[offset + 1], w2 = digests[offset + 2], w3 = digests[offset + 3];
+		if ((w0 | w1 | w2 | w3) == 0)
+			return this.containsZero;
+		return find(this.table, w0, w1, w2, w3) >= 0;
+	}
+
+	/**
+	 * Retrieve the plaintext of the digest.
+	 * @param digest the 32 byte digest to be looked up
+	 * @return the digest's plaintext or null if the digest is not contained or its plaintext is unknown
+	 */
+	public String get(byte[] digest) {
+		long w0 = word(digest, 0, 0), w1 = word(digest, 0, 1), w2 = word(digest, 0, 2), w3 = word(digest, 0, 3);
+		if ((w0 | w1 | w2 | w3) == 0)
+			return this.zeroValue;
+		Table table = this.table;
+		int slot = find(table, w0, w1, w2, w3);
+		return slot >= 0 ? table.values[slot] : null;
+	}
+
+	/**
+	 * Add the digest without a plaintext to this {@code DigestIndex}.
+	 * @param digest the 32 byte digest to be added
+	 * @return true if the digest was added; false if it existed already
+	 */
+	public boolean add(byte[] digest) {
+		return this.insert(digest, null);
+	}
+
+	/**
+	 * Map the digest to its plaintext; the digest is added if it is not yet contained.
+	 * @param digest the 32 byte digest to be mapped
+	 * @param plaintext the digest's plaintext
+	 * @return true if the digest was added; false if it existed already
+	 */
+	public boolean put(byte[] digest, String plaintext) {
+		if (plaintext == null)
+			throw new NullPointerException("Plaintext must not be null");
+		return this.insert(digest, plaintext);
+	}
+
+	private boolean insert(byte[] digest, String plaintext) {
+		long w0 = word(digest, 0, 0), w1 = word(digest, 0, 1), w2 = word(digest, 0, 2), w3 = word(digest, 0, 3);
+		if ((w0 | w1 | w2 | w3) == 0) {
+			boolean added = !this.containsZero;
+			if (added)
+				this.size++;
+			this.containsZero = true;
+			if (plaintext != null) {
+				if (this.zeroValue == null)
+					this.resolved++;
+				this.zeroValue = plaintext;
+			}
+			return added;
+		}
+
+		Table table = this.table;
+		int slot = find(table, w0, w1, w2, w3);
+		if (slot >= 0) {
+			if (plaintext != null) {
+				if (table.values[slot] == null)
+					this.resolved++;
+				table.values[slot] = plaintext;
+			}
+			return false;
+		}
+
+		if (this.size + 1 >= table.maxFill) {
+			table = this.grow(table);
+			slot = find(table, w0, w1, w2, w3);
+		}
+		store(table, -slot - 1, w0, w1, w2, w3, plaintext);
+		if (plaintext != null)
+			this.resolved++;
+		this.size++;
+		return true;
+	}
+
+	private static void store(Table table, int slot, long w0, long w1, long w2, long w3, String plaintext) {
+		int base = slot * WORDS_PER_DIGEST;
+		table.values[slot] = plaintext;
+		table.keys[base] = w0;
+		table.keys[base + 1] = w1;
+		table.keys[base + 2] = w2;
+		table.keys[base + 3] = w3;
+	}
+
+	private Table grow(Table old) {
+		// Fill the new table completely before it is published, so that concurrent readers keep probing the old one
+		Table table = new Table(2 * (old.mask + 1));
+		for (int oldSlot = 0; oldSlot < old.values.length; oldSlot++) {
+			int oldBase = oldSlot * WORDS_PER_DIGEST;
+			long w0 = old.keys[oldBase], w1 = old.keys[oldBase + 1], w2 = old.keys[oldBase + 2], w3 = old.keys[oldBase + 3];
+			if ((w0 | w1 | w2 | w3) == 0)
+				continue;
+
+			store(table, -(find(table, w0, w1, w2, w3) + 1), w0, w1, w2, w3, old.values[oldSlot]);
+		}
+		this.table = table;
+		return table;
+	}
+
+	/**
+	 * Perform the action for each digest in this {@code DigestIndex}. Every invocation receives a fresh copy of the
+	 * digest, so this is meant for bulk transfers and not for hot paths.
+	 * @param action the action that receives each digest and its plaintext, which is null if unknown
+	 */
+	public void forEach(BiConsumer<byte[], String> action) {
+		if (this.containsZero)
+			action.accept(new byte[HashEngine.DIGEST_LENGTH], this.zeroValue);
+
+		Table table = this.table;
+		for (int slot = 0; slot < table.values.length; slot++) {
+			int base = slot * WORDS_PER_DIGEST;
+			if ((table.keys[base] | table.keys[base + 1] | table.keys[base + 2] | table.keys[base + 3]) == 0)
+				continue;
+
+			byte[] digest = new byte[HashEngine.DIGEST_LENGTH];
+			for (int i = 0; i < WORDS_PER_DIGEST; i++) {
+				long word = table.keys[base + i];
+				for (int b = 7; b >= 0; b--) {
+					digest[i * 8 + b] = (byte) word;
+					word >>>= 8;
+				}
+			}
+			action.accept(digest, table.values[slot]);
+		}
+	}
+}
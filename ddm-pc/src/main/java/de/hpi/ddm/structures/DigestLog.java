@@ -0,0 +1,78 @@
+package de.hpi.ddm.structures;
+
+import java.util.Arrays;
+
+public class DigestLog {
+
+	private byte[] digests;		// The digests of all entries back to back
+	private String[] plaintexts;	// The plaintext of each entry or null if the entry only announces its digest
+	private int size;
+
+	/**
+	 * Construct a new {@code DigestLog} with the default capacity.
+	 */
+	public DigestLog() {
+		this(DigestIndex.DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Construct a new {@code DigestLog}, an append-only sequence of digests that are optionally accompanied by
+	 * their plaintexts. The number of entries serves as monotonically increasing version, so that every reader that
+	 * knows the version it has seen last can be brought up to date with the entries from that position on.
+	 * @param expectedSize number of entries that can be appended without growing the log
+	 */
+	public DigestLog(int expectedSize) {
+		this.digests = new byte[Math.max(1, expectedSize) * HashEngine.DIGEST_LENGTH];
+		this.plaintexts = new String[Math.max(1, expectedSize)];
+	}
+
+	/**
+	 * Retrieve the number of entries in this {@code DigestLog}.
+	 * @return the number of entries, which is also the log's current version
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Append an entry to this {@code DigestLog}.
+	 * @param digest the 32 byte digest of the entry
+	 * @param plaintext the digest's plaintext or null if it is not (yet) known
+	 */
+	public void append(byte[] digest, String plaintext) {
+		if (this.size == this.plaintexts.length) {
+			int capacity = Math.multiplyExact(this.plaintexts.length, 2);
+			this.digests = Arrays.copyOf(this.digests, Math.multiplyExact(capacity, HashEngine.DIGEST_LENGTH));
+			this.plaintexts = Arrays.copyOf(this.plaintexts, capacity);
+		}
+		System.arraycopy(digest, 0, this.digests, this.size * HashEngine.DIGEST_LENGTH, HashEngine.DIGEST_LENGTH);
+		this.plaintexts[this.size] = plaintext;
+		this.size++;
+	}
+
+	/**
+	 * Retrieve the digest of the entry at the given position.
+	 * @param position the entry's position in the log
+	 * @return a copy of the entry's digest
+	 */
+	public byte[] digest(int position) {
+		this.check(position);
+		int offset = position * HashEngine.DIGEST_LENGTH;
+		return Arrays.copyOfRange(this.digests, offset, offset + HashEngine.DIGEST_LENGTH);
+	}
+
+	/**
+	 * Retrieve the plaintext of the entry at the given position.
+	 * @param position the entry's position in the log
+	 * @return the entry's plaintext or null if the entry carries none
+	 */
+	public String plaintext(int position) {
+		this.check(position);
+		return this.plaintexts[position];
+	}
+
+	private void check(int position) {
+		if (position < 0 || position >= this.size)
+			throw new IndexOutOfBoundsException("Position " + position + " is not in a log of " + this.size + " entries");
+	}
+}
@@ -0,0 +1,127 @@
+package de.hpi.ddm.structures;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+public class HashEngine {
+
+	public static final String ALGORITHM = "SHA-256";
+	public static final int DIGEST_LENGTH = 32;
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final ThreadLocal<HashEngine> engines = ThreadLocal.withInitial(HashEngine::new);
+
+	private final MessageDigest digest;
+	private final byte[] output = new byte[DIGEST_LENGTH];
+
+	/**
+	 * Retrieve the {@code HashEngine} of the calling thread; engines are not thread-safe and must not be shared.
+	 * @return the {@code HashEngine} that is bound to the calling thread
+	 */
+	public static HashEngine get() {
+		return engines.get();
+	}
+
+	private HashEngine() {
+		try {
+			this.digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Hash the first {@code length} bytes of the candidate buffer. The returned array is owned by this engine and
+	 * overwritten by the next call, so it must be copied if it needs to outlive the next hash operation.
+	 * @param candidate buffer that holds the candidate bytes
+	 * @param length number of bytes of the candidate
+	 * @return the 32 byte SHA-256 digest of the candidate
+	 */
+	public byte[] hash(byte[] candidate, int length) {
+		this.digest.update(candidate, 0, length);
+		try {
+			this.digest.digest(this.output, 0, DIGEST_LENGTH);
+		} catch (DigestException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+		return this.output;
+	}
+
+	/**
+	 * Test if the first {@code length} bytes of the candidate buffer hash to the given target digest.
+	 * @param candidate buffer that holds the candidate bytes
+	 * @param length number of bytes of the candidate
+	 * @param target the 32 byte digest to compare against
+	 * @return true if the candidate's digest equals the target digest
+	 */
+	public boolean matches(byte[] candidate, int length, byte[] target) {
+		return Arrays.equals(this.hash(candidate, length), target);
+	}
+
+	/**
+	 * Hash a string the way the dataset's digests were created, i.e., SHA-256 over its UTF-8 bytes.
+	 * @param value the string to be hashed
+	 * @return a new 32 byte array holding the digest
+	 */
+	public byte[] hash(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return this.hash(bytes, bytes.length).clone();
+	}
+
+	/**
+	 * Decode a 64 character hex string into its 32 byte binary digest.
+	 * @param hex the hex encoded digest
+	 * @return a new 32 byte array holding the digest
+	 * @throws IllegalArgumentException if the string is no hex encoded SHA-256 digest
+	 */
+	public static byte[] fromHex(String hex) {
+		if (hex.length() != 2 * DIGEST_LENGTH)
+			throw new IllegalArgumentException("Not a SHA-256 hex digest: \"" + hex + "\"");
+
+		byte[] bytes = new byte[DIGEST_LENGTH];
+		for (int i = 0; i < DIGEST_LENGTH; i++) {
+			int high = Character.digit(hex.charAt(2 * i), 16);
+			int low = Character.digit(hex.charAt(2 * i + 1), 16);
+			if (high < 0 || low < 0)
+				throw new IllegalArgumentException("Not a SHA-256 hex digest: \"" + hex + "\"");
+			bytes[i] = (byte) ((high << 4) | low);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Encode a binary digest as lower case hex string, which is the format used in the input data.
+	 * @param digest the binary digest
+	 * @return the hex encoded digest
+	 */
+	public static String toHex(byte[] digest) {
+		char[] chars = new char[2 * digest.length];
+		for (int i = 0; i < digest.length; i++) {
+			chars[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+			chars[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Encode a password alphabet into single bytes so that candidates can be assembled in a byte buffer that
+	 * equals their UTF-8 representation.
+	 * @param alphabet the password characters
+	 * @return one byte per password character
+	 * @throws IllegalArgumentException if the alphabet contains non-ASCII characters
+	 */
+	public static byte[] toBytes(String alphabet) {
+		byte[] bytes = new byte[alphabet.length()];
+		for (int i = 0; i < alphabet.length(); i++) {
+			char c = alphabet.charAt(i);
+			if (c > 0x7f)
+				throw new IllegalArgumentException("Password alphabets must be ASCII, but contain '" + c + "'");
+			bytes[i] = (byte) c;
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,191 @@
+package de.hpi.ddm.structures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionIdProvider;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+public class HintIndex implements Extension {
+
+	////////////////////////
+	// Extension Provider //
+	////////////////////////
+
+	public static class Provider extends AbstractExtensionId<HintIndex> implements ExtensionIdProvider {
+
+		public static final Provider INSTANCE = new Provider();
+
+		private Provider() {
+		}
+
+		@Override
+		public Provider lookup() {
+			return INSTANCE;
+		}
+
+		@Override
+		public HintIndex createExtension(ExtendedActorSystem system) {
+			return new HintIndex(system);
+		}
+	}
+
+	/**
+	 * Retrieve the {@code HintIndex} of the given ActorSystem, which all local actors share.
+	 * @param system the local ActorSystem
+	 * @return the ActorSystem's {@code HintIndex}
+	 */
+	public static HintIndex get(ActorSystem system) {
+		return Provider.INSTANCE.get(system);
+	}
+
+	////////////
+	// Events //
+	////////////
+
+	@Data @NoArgsConstructor @AllArgsConstructor
+	public static class PublishedEvent implements Serializable {
+		private static final long serialVersionUID = -3713562021575470416L;
+		private long version;
+	}
+
+	///////////
+	// State //
+	///////////
+
+	// A delta that arrived before the deltas it builds upon
+	private static class Delta {
+		private final long to;
+		private final byte[] digests;
+		private final List<String> plaintexts;
+
+		private Delta(long to, byte[] digests, List<String> plaintexts) {
+			this.to = to;
+			this.digests = digests;
+			this.plaintexts = plaintexts;
+		}
+	}
+
+	private final ActorSystem system;
+	private final DigestIndex digests = new DigestIndex(); // Append-only; written under this monitor, read concurrently
+	private volatile BloomFilter filter = BloomFilter.forDigests(DigestIndex.DEFAULT_EXPECTED_SIZE); // All digests; replaced by a larger one when it is full
+	private int filterCapacity = DigestIndex.DEFAULT_EXPECTED_SIZE;
+	private volatile long version = 0;
+	private final TreeMap<Long, Delta> pending = new TreeMap<>();
+
+	private HintIndex(ActorSystem system) {
+		this.system = system;
+	}
+
+	/**
+	 * Retrieve the version of the currently published hint digests, i.e. the position in the master's hint log up to
+	 * which all entries have been applied.
+	 * @return the published version
+	 */
+	public long version() {
+		return this.version;
+	}
+
+	/**
+	 * Retrieve the hint digests and the plaintexts of those that have been cracked. The returned index can be read
+	 * concurrently by all local workers and their compute threads while later deltas are applied; a reader that
+	 * has seen {@link #version()} reach a version finds at least all digests of that version.
+	 * @return the hint digests
+	 */
+	public DigestIndex digests() {
+		return this.digests;
+	}
+
+	/**
+	 * Retrieve a Bloom filter of the hint digests that rejects almost all candidates with a single word read, so that
+	 * only the few that pass it need to probe {@link #digests()}. The filter is replaced once the digests outgrow it;
+	 * a filter that a reader retrieved after it has seen {@link #version()} reach a version contains at least all
+	 * digests of that version.
+	 * @return the filter of the hint digests
+	 */
+	public BloomFilter filter() {
+		return this.filter;
+	}
+
+	/**
+	 * Apply the entries [from, to) of the master's hint log. Deltas may overlap, repeat or arrive out of order:
+	 * applying an entry twice has no effect, outdated deltas are ignored and deltas that leave a gap are held back
+	 * until the missing entries arrive, so the master can simply re-ship entries if the actor that received them died.
+	 * @param from the log position of the delta's first entry
+	 * @param to the log position after the delta's last entry
+	 * @param digests the 32 byte digests of the delta back to back, without duplicates
+	 * @param plaintexts the plaintext of each digest or null if it is not (yet) cracked
+	 */
+	public synchronized void apply(long from, long to, byte[] digests, List<String> plaintexts) {
+		if (to <= this.version)
+			return;
+		if (from > this.version) {
+			Delta held = this.pending.get(from);
+			if ((held == null) || (held.to < to))
+				this.pending.put(from, new Delta(to, digests, plaintexts));
+			return;
+		}
+
+		this.add(digests, plaintexts);
+		long version = to;
+		for (Map.Entry<Long, Delta> next = this.pending.pollFirstEntry(); next != null; next = this.pending.pollFirstEntry()) {
+			if (next.getKey() > version) {
+				this.pending.put(next.getKey(), next.getValue());
+				break;
+			}
+			if (next.getValue().to > version) {
+				this.add(next.getValue().digests, next.getValue().plaintexts);
+				version = next.getValue().to;
+			}
+		}
+
+		// Publishing the version makes all added digests visible to threads that read it
+		this.version = version;
+		this.system.eventStream().publish(new PublishedEvent(version));
+	}
+
+	/**
+	 * Record the plaintext of a hint that a worker of any node has cracked and published to the replicated
+	 * {@code HintDictionary}, so that the local workers need not report it again. The hint is added if no delta has
+	 * announced it yet; applying its delta later keeps the plaintext.
+	 * @param digest the 32 byte digest of the hint
+	 * @param plaintext the hint's plaintext
+	 */
+	public synchronized void resolve(byte[] digest, String plaintext) {
+		this.add(digest, plaintext);
+		this.growFilter();
+	}
+
+	private void add(byte[] digests, List<String> plaintexts) {
+		for (int i = 0; i < plaintexts.size(); i++) {
+			int offset = i * HashEngine.DIGEST_LENGTH;
+			this.add(Arrays.copyOfRange(digests, offset, offset + HashEngine.DIGEST_LENGTH), plaintexts.get(i));
+		}
+		this.growFilter();
+	}
+
+	private void add(byte[] digest, String plaintext) {
+		boolean added = (plaintext == null) ? this.digests.add(digest) : this.digests.put(digest, plaintext);
+		if (added && (this.digests.size() <= this.filterCapacity))
+			this.filter.addDigest(digest);
+	}
+
+	private void growFilter() {
+		if (this.digests.size() > this.filterCapacity) {
+			// Readers keep probing the old filter until the new one is complete
+			this.filterCapacity = 2 * this.digests.size();
+			BloomFilter filter = BloomFilter.forDigests(this.filterCapacity);
+			this.digests.forEach((digest, plaintext) -> filter.addDigest(digest));
+			this.filter = filter;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package de.hpi.ddm.structures;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 3;								// Every power of two is split into 2^3 buckets, so values are off by at most 12.5%
+	private static final int NUM_LINEAR = 2 << SUB_BUCKET_BITS;					// The small values that have a bucket of their own
+	public static final int NUM_BUCKETS = NUM_LINEAR + (63 - SUB_BUCKET_BITS - 1) * (1 << SUB_BUCKET_BITS);
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+
+	/**
+	 * Construct a new {@code Histogram}, a fixed set of log-linear buckets for non-negative values such as latencies.
+	 * Recording a value costs one atomic increment, so any number of threads can record into the same histogram
+	 * while another one drains it; percentiles are precise to the width of their bucket.
+	 */
+	public Histogram() {
+	}
+
+	/**
+	 * Determine the bucket that a value falls into.
+	 * @param value the non-negative value; negative values fall into the first bucket
+	 * @return the bucket's index
+	 */
+	public static int bucket(long value) {
+		if (value < NUM_LINEAR)
+			return (int) Math.max(0, value);
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+		return NUM_LINEAR + ((exponent - SUB_BUCKET_BITS - 1) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	/**
+	 * Determine the largest value of a bucket.
+	 * @param bucket the bucket's index
+	 * @return the largest value that falls into the bucket
+	 */
+	public static long upperBound(int bucket) {
+		if (bucket < NUM_LINEAR)
+			return bucket;
+		int exponent = ((bucket - NUM_LINEAR) >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS + 1;
+		long subBucket = ((bucket - NUM_LINEAR) & ((1 << SUB_BUCKET_BITS) - 1)) | (1 << SUB_BUCKET_BITS);
+		return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * Record a value.
+	 * @param value the non-negative value
+	 */
+	public void record(long value) {
+		this.counts.incrementAndGet(bucket(value));
+	}
+
+	/**
+	 * Add the bucket counts of another histogram, e.g. one that a remote node has drained.
+	 * @param counts the counts per bucket as returned by {@link #drain()}
+	 */
+	public void add(long[] counts) {
+		for (int bucket = 0; bucket < Math.min(counts.length, NUM_BUCKETS); bucket++)
+			if (counts[bucket] != 0)
+				this.counts.addAndGet(bucket, counts[bucket]);
+	}
+
+	/**
+	 * Take the bucket counts out of this histogram, so that it only records the values from now on.
+	 * @return the counts per bucket
+	 */
+	public long[] drain() {
+		long[] counts = new long[NUM_BUCKETS];
+		for (int bucket = 0; bucket < NUM_BUCKETS; bucket++)
+			if (this.counts.get(bucket) != 0)
+				counts[bucket] = this.counts.getAndSet(bucket, 0);
+		return counts;
+	}
+
+	/**
+	 * Retrieve the number of recorded values.
+	 * @return the number of values
+	 */
+	public long count() {
+		long count = 0;
+		for (int bucket = 0; bucket < NUM_BUCKETS; bucket++)
+			count += this.counts.get(bucket);
+		return count;
+	}
+
+	/**
+	 * Retrieve a percentile of the recorded values.
+	 * @param percentile the percentile between 0 and 100
+	 * @return the upper bound of the bucket that holds the percentile or 0 if no value was recorded
+	 */
+	public long percentile(double percentile) {
+		long count = this.count();
+		if (count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+			seen += this.counts.get(bucket);
+			if (seen >= rank)
+				return upperBound(bucket);
+		}
+		return upperBound(NUM_BUCKETS - 1);
+	}
+}
@@ -0,0 +1,243 @@
+package de.hpi.ddm.structures;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class Journal implements Closeable {
+
+	private static final byte HINT = 1;
+	private static final byte PASSWORD = 2;
+
+	private static final int HEADER_LENGTH = 8;				// The payload length and the payload's CRC32 in front of every frame
+	private static final int MAX_RECORDS_PER_FRAME = 4096;	// Compaction writes its records in frames of at most this many records
+
+	/**
+	 * The state that a {@code Journal} has recorded: the cracked hints by their digests and the collected passwords by
+	 * the digests of the passwords, so a recorded result is only reused for a user whose password hash matches.
+	 */
+	public static class Checkpoint {
+		private final DigestIndex hints = new DigestIndex();
+		private final DigestIndex passwords = new DigestIndex();
+
+		public DigestIndex getHints() {
+			return this.hints;
+		}
+
+		public DigestIndex getPasswords() {
+			return this.passwords;
+		}
+	}
+
+	private final Path path;
+	private FileChannel channel;
+	private final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+	private final DataOutputStream records = new DataOutputStream(this.frame);
+	private int numPending = 0;
+	private int numFrames = 0;		// The frames written since the journal was opened or last compacted
+
+	/**
+	 * Read all complete frames of a journal file. A frame that is cut off or whose checksum does not match was being
+	 * written when the process died; it and everything after it is discarded and cut off the file, so that new frames
+	 * are appended to the last intact one.
+	 * @param path the journal file, which need not exist
+	 * @return the recorded hints and passwords
+	 * @throws IOException if the file cannot be read or truncated
+	 */
+	public static Checkpoint replay(Path path) throws IOException {
+		Checkpoint checkpoint = new Checkpoint();
+		if (!Files.exists(path))
+			return checkpoint;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long valid = read(channel, checkpoint);
+			if (valid < channel.size())
+				channel.truncate(valid);
+		}
+		return checkpoint;
+	}
+
+	private static long read(FileChannel channel, Checkpoint checkpoint) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+		CRC32 crc = new CRC32();
+		long valid = 0;
+		while (true) {
+			byte[] payload;
+			try {
+				int length = input.readInt();
+				int checksum = input.readInt();
+				if (length < 0 || length > channel.size() - valid - HEADER_LENGTH)
+					return valid;
+				payload = new byte[length];
+				input.readFully(payload);
+				crc.reset();
+				crc.update(payload);
+				if ((int) crc.getValue() != checksum)
+					return valid;
+			} catch (EOFException e) {
+				return valid;
+			}
+
+			ByteBuffer records = ByteBuffer.wrap(payload);
+			while (records.hasRemaining()) {
+				byte type = records.get();
+				byte[] digest = new byte[HashEngine.DIGEST_LENGTH];
+				records.get(digest);
+				byte[] text = new byte[records.getShort() & 0xFFFF];
+				records.get(text);
+				(type == HINT ? checkpoint.hints : checkpoint.passwords).put(digest, new String(text, StandardCharsets.UTF_8));
+			}
+			valid += HEADER_LENGTH + payload.length;
+		}
+	}
+
+	/**
+	 * Construct a new {@code Journal}, an append-only file of cracked hints and collected passwords from which a
+	 * restarted master recovers the results of a job that died. Records are buffered and written as one checksummed
+	 * frame per {@link #flush()}, so the cost of the file system is paid once per batch and a crash loses at most the
+	 * records of the last batch. Call {@link #replay(Path)} first to recover the file's records and cut off a torn tail.
+	 * @param path the journal file, which is created if it does not exist
+	 * @throws IOException if the file cannot be opened
+	 */
+	public Journal(Path path) throws IOException {
+		this.path = path;
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Record a cracked hint.
+	 * @param digest the hint's digest
+	 * @param plaintext the hint's plaintext
+	 */
+	public void hint(byte[] digest, String plaintext) {
+		this.append(HINT, digest, plaintext);
+	}
+
+	/**
+	 * Record a collected password.
+	 * @param passwordHash the digest of the user's password
+	 * @param password the password that was collected for the user
+	 */
+	public void password(byte[] passwordHash, String password) {
+		this.append(PASSWORD, passwordHash, password);
+	}
+
+	private void append(byte type, byte[] digest, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		try {
+			this.records.writeByte(type);
+			this.records.write(digest, 0, HashEngine.DIGEST_LENGTH);
+			this.records.writeShort(bytes.length);
+			this.records.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // A ByteArrayOutputStream does not throw
+		}
+		this.numPending++;
+	}
+
+	/**
+	 * Retrieve the number of records that are buffered but not yet written.
+	 * @return the number of pending records
+	 */
+	public int pending() {
+		return this.numPending;
+	}
+
+	/**
+	 * Retrieve the number of frames that were written since the journal was opened or last compacted.
+	 * @return the number of written frames
+	 */
+	public int frames() {
+		return this.numFrames;
+	}
+
+	/**
+	 * Write the buffered records as one frame and force it to the storage device.
+	 * @throws IOException if the frame cannot be written
+	 */
+	public void flush() throws IOException {
+		if (this.numPending == 0)
+			return;
+		writeFrame(this.channel, this.frame);
+		this.channel.force(false);
+		this.frame.reset();
+		this.numPending = 0;
+		this.numFrames++;
+	}
+
+	private static void writeFrame(FileChannel channel, ByteArrayOutputStream frame) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] payload = frame.toByteArray();
+		crc.update(payload);
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+		buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+
+	/**
+	 * Rewrite the journal with only one record per hint and password, dropping the records that later batches
+	 * repeated. The compacted journal is written next to the file and then moved over it, so a crash during the
+	 * compaction leaves either the old or the new journal behind.
+	 * @return the compacted state
+	 * @throws IOException if the journal cannot be rewritten
+	 */
+	public Checkpoint compact() throws IOException {
+		this.flush();
+		this.channel.close();
+
+		Checkpoint checkpoint = replay(this.path);
+		Path compacted = this.path.resolveSibling(this.path.getFileName() + ".compact");
+		try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			checkpoint.hints.forEach((digest, plaintext) -> this.compact(channel, HINT, digest, plaintext));
+			checkpoint.passwords.forEach((digest, password) -> this.compact(channel, PASSWORD, digest, password));
+			if (this.numPending > 0)
+				writeFrame(channel, this.frame);
+			channel.force(true);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			this.frame.reset();
+			this.numPending = 0;
+			this.numFrames = 0;
+		}
+		Files.move(compacted, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		return checkpoint;
+	}
+
+	private void compact(FileChannel channel, byte type, byte[] digest, String text) {
+		// Split the records into frames, so that neither writing nor replaying needs one buffer for the whole state
+		this.append(type, digest, text);
+		if (this.numPending < MAX_RECORDS_PER_FRAME)
+			return;
+		try {
+			writeFrame(channel, this.frame);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.frame.reset();
+		this.numPending = 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.flush();
+		this.channel.close();
+	}
+}
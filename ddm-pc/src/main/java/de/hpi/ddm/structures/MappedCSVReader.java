@@ -0,0 +1,241 @@
+package de.hpi.ddm.structures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import de.hpi.ddm.configuration.DatasetDescriptor;
+
+public class MappedCSVReader implements Iterator<String[]>, Closeable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private final Executor executor;
+	private final int parallelism;
+	private final int chunkSize;
+
+	private final Charset charset;
+	private final byte separator;
+	private final byte quote;
+	private final byte escape;
+	private final boolean strictQuotes;
+	private final boolean ignoreLeadingWhitespace;
+	private final boolean skipDifferingLines;
+	private final int numFields;		// The number of fields of the file's first line or -1 if it is empty
+
+	private long nextChunk;				// The file position where the next chunk starts
+	private final Deque<CompletableFuture<List<String[]>>> chunks = new ArrayDeque<>();
+	private Iterator<String[]> records = Collections.emptyIterator();
+
+	/**
+	 * Construct a new {@code MappedCSVReader} that memory-maps the dataset file, cuts it into line-aligned chunks of
+	 * about {@code chunkSize} bytes and parses up to {@code parallelism} chunks ahead on the given executor. The
+	 * records are returned in file order and follow the quote, escape, header and skip-differing-lines settings of
+	 * the dataset descriptor. Records cannot span several lines, i.e. quoted values must not contain line breaks,
+	 * and the charset must encode the separator, quote, escape and line break characters as single bytes.
+	 * @param path the dataset file
+	 * @param descriptor the dataset's format
+	 * @param executor the executor that parses the chunks
+	 * @param parallelism the number of chunks that are parsed concurrently
+	 * @param chunkSize the approximate number of bytes per chunk
+	 * @throws IOException if the file cannot be opened or mapped
+	 * @throws IllegalArgumentException if the dataset's charset or special characters are not single bytes
+	 */
+	public MappedCSVReader(Path path, DatasetDescriptor descriptor, Executor executor, int parallelism, int chunkSize) throws IOException {
+		this.charset = descriptor.getCharset();
+		if (!this.charset.equals(StandardCharsets.UTF_8) && !this.charset.equals(StandardCharsets.US_ASCII) && !this.charset.equals(StandardCharsets.ISO_8859_1))
+			throw new IllegalArgumentException("Memory-mapped reading supports only ASCII-compatible charsets, but not " + this.charset);
+		this.separator = asciiByte(descriptor.getValueSeparator());
+		this.quote = asciiByte(descriptor.getValueQuote());
+		this.escape = asciiByte(descriptor.getValueEscape());
+		this.strictQuotes = descriptor.isValueStrictQuotes();
+		this.ignoreLeadingWhitespace = descriptor.isValueIgnoreLeadingWhitespace();
+		this.skipDifferingLines = descriptor.isReaderSkipDifferingLines();
+
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.fileSize = this.channel.size();
+		this.executor = executor;
+		this.parallelism = Math.max(1, parallelism);
+		this.chunkSize = Math.max(1, chunkSize);
+
+		// The first line determines the number of fields and is skipped if it is the header
+		MappedByteBuffer first = this.map(0);
+		int firstEnd = endOfFirstLine(first);
+		int firstLineEnd = (firstEnd > 0 && first.get(firstEnd - 1) == '\n') ? firstEnd - 1 : firstEnd;
+		String[] firstRecord = this.parse(first, 0, firstLineEnd, new byte[firstLineEnd]);
+		this.numFields = (firstRecord == null) ? -1 : firstRecord.length;
+		this.nextChunk = descriptor.isFileHasHeader() ? firstEnd : 0;
+		while (this.chunks.size() < this.parallelism && this.submit());
+	}
+
+	private static byte asciiByte(char c) {
+		if (c > 0x7f)
+			throw new IllegalArgumentException("Memory-mapped reading supports only ASCII special characters, but not '" + c + "'");
+		return (byte) c;
+	}
+
+	// Map the largest region from the given position on that ends with a complete line or at the end of the file
+	private MappedByteBuffer map(long start) throws IOException {
+		long size = Math.min(this.fileSize - start, this.chunkSize);
+		while (true) {
+			MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+			if (start + size == this.fileSize)
+				return buffer;
+			for (int i = (int) size - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					buffer.limit(i + 1);
+					return buffer;
+				}
+			}
+			// The chunk holds no line break, so the line is longer than a chunk
+			size = Math.min(this.fileSize - start, Math.min(Integer.MAX_VALUE, 2 * size));
+		}
+	}
+
+	private static int endOfFirstLine(MappedByteBuffer buffer) {
+		for (int i = 0; i < buffer.limit(); i++)
+			if (buffer.get(i) == '\n')
+				return i + 1;
+		return buffer.limit();
+	}
+
+	private boolean submit() {
+		if (this.nextChunk >= this.fileSize)
+			return false;
+
+		final MappedByteBuffer chunk;
+		try {
+			chunk = this.map(this.nextChunk);
+		} catch (IOException e) {
+			this.chunks.add(failed(e));
+			this.nextChunk = this.fileSize;
+			return false;
+		}
+		this.nextChunk += chunk.limit();
+		this.chunks.add(CompletableFuture.supplyAsync(() -> this.parse(chunk), this.executor));
+		return true;
+	}
+
+	private static CompletableFuture<List<String[]>> failed(Throwable cause) {
+		CompletableFuture<List<String[]>> future = new CompletableFuture<>();
+		future.completeExceptionally(cause);
+		return future;
+	}
+
+	// Parse all lines of a chunk; this runs concurrently for several chunks and touches no mutable shared state
+	private List<String[]> parse(MappedByteBuffer chunk) {
+		List<String[]> records = new ArrayList<>();
+		byte[] scratch = new byte[256];
+		int start = 0;
+		int limit = chunk.limit();
+		while (start < limit) {
+			int end = start;
+			while (end < limit && chunk.get(end) != '\n')
+				end++;
+			if (end - start > scratch.length)
+				scratch = new byte[end - start];
+
+			String[] record = this.parse(chunk, start, end, scratch);
+			if ((record != null) && (!this.skipDifferingLines || this.numFields < 0 || record.length == this.numFields))
+				records.add(record);
+			start = end + 1;
+		}
+		return records;
+	}
+
+	/**
+	 * Parse the line in [start, end) into its values. The bytes of each value are copied once from the mapped file
+	 * into the scratch buffer, without quotes and escapes, and decoded from there. Empty unquoted values become null.
+	 * @return the line's values or null if the line is empty
+	 */
+	private String[] parse(MappedByteBuffer line, int start, int end, byte[] scratch) {
+		if (end > start && line.get(end - 1) == '\r')
+			end--;
+		if (end == start)
+			return null;
+
+		List<String> values = new ArrayList<>();
+		int i = start;
+		while (true) {
+			if (this.ignoreLeadingWhitespace)
+				while (i < end && (line.get(i) == ' ' || line.get(i) == '\t'))
+					i++;
+
+			int length = 0;
+			boolean quoted = false;
+			boolean inQuotes = false;
+			for (; i < end; i++) {
+				byte b = line.get(i);
+				if (b == this.escape && i + 1 < end && (line.get(i + 1) == this.quote || line.get(i + 1) == this.escape)) {
+					if (inQuotes || !this.strictQuotes)
+						scratch[length++] = line.get(++i);
+					else
+						i++;
+				} else if (b == this.quote) {
+					if (inQuotes && i + 1 < end && line.get(i + 1) == this.quote) {
+						scratch[length++] = this.quote; // A doubled quote within quotes is a literal quote
+						i++;
+					} else {
+						inQuotes = !inQuotes;
+						quoted = true;
+					}
+				} else if (b == this.separator && !inQuotes) {
+					break;
+				} else if (inQuotes || !this.strictQuotes) {
+					scratch[length++] = b;
+				}
+			}
+			values.add((length == 0 && !quoted) ? null : new String(scratch, 0, length, this.charset));
+
+			if (i >= end)
+				break;
+			i++; // Skip the separator
+		}
+		return values.toArray(new String[values.size()]);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!this.records.hasNext()) {
+			CompletableFuture<List<String[]>> chunk = this.chunks.poll();
+			if (chunk == null)
+				return false;
+			this.submit();
+			try {
+				this.records = chunk.join().iterator();
+			} catch (CompletionException e) {
+				throw new IllegalStateException("Could not read the dataset", e.getCause());
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String[] next() {
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+		return this.records.next();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,263 @@
+package de.hpi.ddm.structures;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.twitter.chill.KryoInstantiator;
+
+import de.hpi.ddm.actors.Master;
+import de.hpi.ddm.actors.Worker;
+
+/**
+ * Creates Kryo instances that serialize the messages between master and workers as compact binary records: digests
+ * as their 32 bytes instead of 64 hex characters, ids and counters as variable-length integers and alphabets and
+ * plaintexts as one byte per character. All messages are registered, so their class is written as a small id
+ * instead of its name. The chill serializer of the ActorSystems picks this instantiator up via the
+ * {@code com.twitter.chill.config.configuredinstantiator} setting; all ActorSystems of a cluster must register the
+ * same classes in the same order.
+ */
+public class MessageKryoInstantiator extends KryoInstantiator {
+
+	private static final long serialVersionUID = -2915212547426958155L;
+
+	@Override
+	public Kryo newKryo() {
+		Kryo kryo = super.newKryo();
+		kryo.register(Worker.TaskMessage.class, new TaskMessageSerializer());
+		kryo.register(Worker.CancelMessage.class, new CancelMessageSerializer());
+		kryo.register(Worker.HashMessage.class, new HashMessageSerializer());
+		kryo.register(Worker.PasswordCharsMessage.class, new PasswordCharsMessageSerializer());
+		kryo.register(Worker.HintsHashesMessage.class, new HintsHashesMessageSerializer());
+		kryo.register(Master.ResultMessage.class, new ResultMessageSerializer());
+		kryo.register(Master.HintMessage.class, new HintMessageSerializer());
+		kryo.register(Master.WorkRequestMessage.class, new WorkRequestMessageSerializer());
+		kryo.register(Master.RegistrationMessage.class, new RegistrationMessageSerializer());
+		kryo.register(Master.MetricsMessage.class, new MetricsMessageSerializer());
+		return kryo;
+	}
+
+	// Byte arrays of variable length are written as their length followed by their bytes
+	private static void writeByteArray(Output output, byte[] bytes) {
+		output.writeVarInt(bytes.length, true);
+		output.writeBytes(bytes);
+	}
+
+	private static byte[] readByteArray(Input input) {
+		return input.readBytes(input.readVarInt(true));
+	}
+
+	// Hex digests are written as their 32 binary bytes; strings need no such treatment, because Kryo writes ASCII
+	// strings, which all alphabets, hints and passwords are, with one byte per character already
+	private static void writeHexDigest(Output output, String hex) {
+		output.writeBytes(HashEngine.fromHex(hex));
+	}
+
+	private static String readHexDigest(Input input) {
+		return HashEngine.toHex(input.readBytes(HashEngine.DIGEST_LENGTH));
+	}
+
+	// Histograms are written sparsely as their number of non-empty buckets followed by the index and count of each
+	private static void writeHistogram(Output output, long[] counts) {
+		int size = 0;
+		for (long count : counts)
+			if (count != 0)
+				size++;
+		output.writeVarInt(size, true);
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			if (counts[bucket] != 0) {
+				output.writeVarInt(bucket, true);
+				output.writeVarLong(counts[bucket], true);
+			}
+		}
+	}
+
+	private static long[] readHistogram(Input input) {
+		long[] counts = new long[Histogram.NUM_BUCKETS];
+		int size = input.readVarInt(true);
+		for (int i = 0; i < size; i++)
+			counts[input.readVarInt(true)] = input.readVarLong(true);
+		return counts;
+	}
+
+	/////////////////////
+	// Worker Messages //
+	/////////////////////
+
+	public static class TaskMessageSerializer extends Serializer<Worker.TaskMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Worker.TaskMessage message) {
+			output.writeVarInt(message.getId(), true);
+			output.writeBytes(message.getPasswordHash());
+			output.writeVarInt(message.getPasswordLength(), true);
+			writeByteArray(output, message.getLetters());
+			output.writeVarLong(message.getStart(), true);
+			output.writeVarLong(message.getEnd(), true);
+		}
+
+		@Override
+		public Worker.TaskMessage read(Kryo kryo, Input input, Class<Worker.TaskMessage> type) {
+			int id = input.readVarInt(true);
+			byte[] passwordHash = input.readBytes(HashEngine.DIGEST_LENGTH);
+			int passwordLength = input.readVarInt(true);
+			byte[] letters = readByteArray(input);
+			long start = input.readVarLong(true);
+			long end = input.readVarLong(true);
+			return new Worker.TaskMessage(id, passwordHash, passwordLength, letters, start, end);
+		}
+	}
+
+	public static class CancelMessageSerializer extends Serializer<Worker.CancelMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Worker.CancelMessage message) {
+			output.writeVarInt(message.getId(), true);
+		}
+
+		@Override
+		public Worker.CancelMessage read(Kryo kryo, Input input, Class<Worker.CancelMessage> type) {
+			return new Worker.CancelMessage(input.readVarInt(true));
+		}
+	}
+
+	public static class HashMessageSerializer extends Serializer<Worker.HashMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Worker.HashMessage message) {
+			output.writeVarInt(message.getUnit(), true);
+			output.writeString(message.getCharacter());
+			output.writeString(message.getPrefix());
+			output.writeVarLong(message.getHintsVersion(), true);
+			output.writeBoolean(message.isReplicated());
+		}
+
+		@Override
+		public Worker.HashMessage read(Kryo kryo, Input input, Class<Worker.HashMessage> type) {
+			return new Worker.HashMessage(input.readVarInt(true), input.readString(), input.readString(), input.readVarLong(true), input.readBoolean());
+		}
+	}
+
+	public static class PasswordCharsMessageSerializer extends Serializer<Worker.PasswordCharsMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Worker.PasswordCharsMessage message) {
+			output.writeString(message.getPasswordChars());
+		}
+
+		@Override
+		public Worker.PasswordCharsMessage read(Kryo kryo, Input input, Class<Worker.PasswordCharsMessage> type) {
+			return new Worker.PasswordCharsMessage(input.readString());
+		}
+	}
+
+	public static class HintsHashesMessageSerializer extends Serializer<Worker.HintsHashesMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Worker.HintsHashesMessage message) {
+			output.writeVarLong(message.getFrom(), true);
+			output.writeVarLong(message.getTo() - message.getFrom(), true);
+			output.writeVarInt(message.getPlaintexts().size(), true);
+			output.writeBytes(message.getDigests(), 0, message.getPlaintexts().size() * HashEngine.DIGEST_LENGTH);
+			for (String plaintext : message.getPlaintexts())
+				output.writeString(plaintext);
+		}
+
+		@Override
+		public Worker.HintsHashesMessage read(Kryo kryo, Input input, Class<Worker.HintsHashesMessage> type) {
+			long from = input.readVarLong(true);
+			long to = from + input.readVarLong(true);
+			int size = input.readVarInt(true);
+			byte[] digests = input.readBytes(size * HashEngine.DIGEST_LENGTH);
+			List<String> plaintexts = new ArrayList<>(size);
+			for (int i = 0; i < size; i++)
+				plaintexts.add(input.readString());
+			return new Worker.HintsHashesMessage(from, to, digests, plaintexts);
+		}
+	}
+
+	/////////////////////
+	// Master Messages //
+	/////////////////////
+
+	public static class ResultMessageSerializer extends Serializer<Master.ResultMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Master.ResultMessage message) {
+			output.writeVarInt(message.getId(), true);
+			output.writeString(message.getPassword());
+			output.writeVarLong(message.getStart(), true);
+			output.writeVarLong(message.getEnd(), true);
+		}
+
+		@Override
+		public Master.ResultMessage read(Kryo kryo, Input input, Class<Master.ResultMessage> type) {
+			return new Master.ResultMessage(input.readVarInt(true), input.readString(), input.readVarLong(true), input.readVarLong(true));
+		}
+	}
+
+	public static class HintMessageSerializer extends Serializer<Master.HintMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Master.HintMessage message) {
+			output.writeVarInt(message.getUnit(), true);
+			output.writeVarInt(message.getCrackedHints().size(), true);
+			for (Map.Entry<String, String> hint : message.getCrackedHints().entrySet()) {
+				writeHexDigest(output, hint.getKey());
+				output.writeString(hint.getValue());
+			}
+			output.writeVarLong(message.getHintsVersion(), true);
+			output.writeVarInt(message.getNumReplicated(), true);
+		}
+
+		@Override
+		public Master.HintMessage read(Kryo kryo, Input input, Class<Master.HintMessage> type) {
+			int unit = input.readVarInt(true);
+			int size = input.readVarInt(true);
+			Hashtable<String, String> crackedHints = new Hashtable<>(Math.max(1, 2 * size));
+			for (int i = 0; i < size; i++)
+				crackedHints.put(readHexDigest(input), input.readString());
+			return new Master.HintMessage(unit, crackedHints, input.readVarLong(true), input.readVarInt(true));
+		}
+	}
+
+	public static class WorkRequestMessageSerializer extends Serializer<Master.WorkRequestMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Master.WorkRequestMessage message) {
+			output.writeVarInt(message.getNumTasks(), true);
+		}
+
+		@Override
+		public Master.WorkRequestMessage read(Kryo kryo, Input input, Class<Master.WorkRequestMessage> type) {
+			return new Master.WorkRequestMessage(input.readVarInt(true));
+		}
+	}
+
+	public static class RegistrationMessageSerializer extends Serializer<Master.RegistrationMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Master.RegistrationMessage message) {
+			output.writeVarLong(message.getHintsVersion(), true);
+		}
+
+		@Override
+		public Master.RegistrationMessage read(Kryo kryo, Input input, Class<Master.RegistrationMessage> type) {
+			return new Master.RegistrationMessage(input.readVarLong(true));
+		}
+	}
+
+	public static class MetricsMessageSerializer extends Serializer<Master.MetricsMessage> {
+		@Override
+		public void write(Kryo kryo, Output output, Master.MetricsMessage message) {
+			output.writeVarLong(message.getHashes(), true);
+			output.writeVarLong(message.getFilterProbes(), true);
+			output.writeVarLong(message.getFilterPasses(), true);
+			output.writeVarLong(message.getFilterHits(), true);
+			writeHistogram(output, message.getServiceTimes());
+			writeHistogram(output, message.getQueueWaits());
+		}
+
+		@Override
+		public Master.MetricsMessage read(Kryo kryo, Input input, Class<Master.MetricsMessage> type) {
+			return new Master.MetricsMessage(input.readVarLong(true), input.readVarLong(true), input.readVarLong(true), input.readVarLong(true),
+					readHistogram(input), readHistogram(input));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package de.hpi.ddm.structures;
+
+public class PermutationGenerator {
+
+	private final byte[] symbols;
+	private final int from;
+	private final int[] counters;
+	private int index;
+
+	/**
+	 * Construct a new {@code PermutationGenerator} that permutes the given symbols in place using the iterative
+	 * version of Heap's algorithm (https://en.wikipedia.org/wiki/Heap's_algorithm). The given array is the first
+	 * permutation and each call to {@link #next()} turns it into the next one with a single swap, so no
+	 * permutation is ever materialized.
+	 * @param symbols the array to be permuted in place
+	 */
+	public PermutationGenerator(byte[] symbols) {
+		this(symbols, 0);
+	}
+
+	/**
+	 * Construct a new {@code PermutationGenerator} that keeps the first {@code from} symbols as fixed prefix and
+	 * permutes only the remaining symbols in place, so that a permutation space can be split by leading symbols.
+	 * @param symbols the array to be permuted in place
+	 * @param from the number of leading symbols that stay fixed
+	 */
+	public PermutationGenerator(byte[] symbols, int from) {
+		this.symbols = symbols;
+		this.from = from;
+		this.counters = new int[Math.max(0, symbols.length - from)];
+		this.index = 1;
+	}
+
+	/**
+	 * Retrieve the array that holds the current permutation.
+	 * @return the permuted array, which is the same instance that was passed to the constructor
+	 */
+	public byte[] current() {
+		return this.symbols;
+	}
+
+	/**
+	 * Advance the array to the next permutation.
+	 * @return true if the array holds a new permutation; false if all permutations have been enumerated
+	 */
+	public boolean next() {
+		while (this.index < this.counters.length) {
+			if (this.counters[this.index] < this.index) {
+				// If the index is even, swap first and index-th element; otherwise swap the counter-th and index-th element
+				this.swap((this.index & 1) == 0 ? 0 : this.counters[this.index], this.index);
+				this.counters[this.index]++;
+				this.index = 1;
+				return true;
+			}
+			this.counters[this.index] = 0;
+			this.index++;
+		}
+		return false;
+	}
+
+	private void swap(int i, int j) {
+		byte temp = this.symbols[this.from + i];
+		this.symbols[this.from + i] = this.symbols[this.from + j];
+		this.symbols[this.from + j] = temp;
+	}
+}
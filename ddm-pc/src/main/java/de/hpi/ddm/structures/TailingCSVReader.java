@@ -0,0 +1,188 @@
+package de.hpi.ddm.structures;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.opencsv.CSVParser;
+
+import de.hpi.ddm.configuration.DatasetDescriptor;
+
+public class TailingCSVReader implements Iterator<String[]>, Closeable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+	private final Path file;			// The followed dataset file or null if the segments of a directory are followed
+	private final Path directory;		// The directory of the followed file or segments
+	private final String ending;		// The file ending of the segments
+	private final WatchService watcher;
+	private final int chunkSize;
+
+	private final Charset charset;
+	private final CSVParser parser;
+	private final boolean hasHeader;
+	private final boolean skipDifferingLines;
+	private int numFields = -1;			// The number of fields of the first line or -1 if no line has been read yet
+
+	private final Map<Path, Long> offsets = new HashMap<>();	// The position after the last complete line that was read of each file
+	private final Deque<String[]> records = new ArrayDeque<>();
+
+	/**
+	 * Construct a new {@code TailingCSVReader} that follows a dataset file, or all files with the dataset's ending in
+	 * a directory, as it grows. Each file is read from the position after the last complete line that was read of it,
+	 * so lines that are still being written are read once their line break arrives, and the files of a directory are
+	 * read in the order of their names. The files must only grow by appended lines. The records follow the quote,
+	 * escape, header and skip-differing-lines settings of the dataset descriptor, where the header is the first line
+	 * of each file. Records cannot span several lines and the charset must encode the line break as a single byte.
+	 * @param path the dataset file, which may not exist yet, or the directory of the dataset's segments
+	 * @param descriptor the dataset's format
+	 * @param chunkSize the maximum number of bytes that are read of a file at once unless a line is longer
+	 * @throws IOException if the directory cannot be watched
+	 */
+	public TailingCSVReader(Path path, DatasetDescriptor descriptor, int chunkSize) throws IOException {
+		this.file = Files.isDirectory(path) ? null : path.toAbsolutePath();
+		this.directory = (this.file == null) ? path.toAbsolutePath() : this.file.getParent();
+		this.ending = descriptor.getDatasetEnding();
+		this.chunkSize = Math.max(1, chunkSize);
+
+		this.charset = descriptor.getCharset();
+		this.parser = descriptor.createCSVParser();
+		this.hasHeader = descriptor.isFileHasHeader();
+		this.skipDifferingLines = descriptor.isReaderSkipDifferingLines();
+
+		this.watcher = this.directory.getFileSystem().newWatchService();
+		this.directory.register(this.watcher, ENTRY_CREATE, ENTRY_MODIFY);
+	}
+
+	/**
+	 * Test if one of the followed files has been created or modified since the last call, so that {@link #hasNext()}
+	 * may find new records. This does not block.
+	 * @return true if the followed files may have grown
+	 */
+	public boolean changed() {
+		boolean changed = false;
+		for (WatchKey key = this.watcher.poll(); key != null; key = this.watcher.poll()) {
+			for (WatchEvent<?> event : key.pollEvents())
+				changed |= (event.kind() == OVERFLOW) || this.follows(this.directory.resolve((Path) event.context()));
+			key.reset();
+		}
+		return changed;
+	}
+
+	private boolean follows(Path path) {
+		return (this.file == null) ? path.getFileName().toString().endsWith(this.ending) : path.equals(this.file);
+	}
+
+	private List<Path> files() throws IOException {
+		if (this.file != null)
+			return Files.isRegularFile(this.file) ? Collections.singletonList(this.file) : Collections.emptyList();
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.filter(path -> Files.isRegularFile(path) && this.follows(path)).sorted().collect(Collectors.toList());
+		}
+	}
+
+	// Read the next chunk of complete lines of the first file that has grown; a chunk may hold no records if all of
+	// its lines are skipped
+	private boolean read() throws IOException {
+		for (Path file : this.files())
+			if (this.read(file))
+				return true;
+		return false;
+	}
+
+	private boolean read(Path file) throws IOException {
+		long offset = this.offsets.getOrDefault(file, 0L);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long available = channel.size() - offset;
+			int length = (int) Math.min(available, this.chunkSize);
+			while (length > 0) {
+				ByteBuffer chunk = ByteBuffer.allocate(length);
+				while (chunk.hasRemaining())
+					if (channel.read(chunk, offset + chunk.position()) < 0)
+						return false;
+
+				int end = length;
+				while ((end > 0) && (chunk.get(end - 1) != '\n'))
+					end--;
+				if (end > 0) {
+					this.parse(chunk.array(), end, offset == 0);
+					this.offsets.put(file, offset + end);
+					return true;
+				}
+				// The chunk holds no line break, so its line is either longer than a chunk or still being written
+				if (length == available)
+					return false;
+				length = (int) Math.min(available, Math.min(Integer.MAX_VALUE, 2L * length));
+			}
+		}
+		return false;
+	}
+
+	private void parse(byte[] chunk, int end, boolean firstLine) throws IOException {
+		for (String line : new String(chunk, 0, end, this.charset).split("\n")) {
+			if (line.endsWith("\r"))
+				line = line.substring(0, line.length() - 1);
+			if (line.isEmpty())
+				continue;
+
+			String[] record = this.parser.parseLine(line);
+			if (this.numFields < 0)
+				this.numFields = record.length;
+			boolean header = firstLine && this.hasHeader;
+			firstLine = false;
+			if (!header && (!this.skipDifferingLines || record.length == this.numFields))
+				this.records.add(record);
+		}
+	}
+
+	/**
+	 * Test if the followed files hold further records. Unlike other iterators, a reader that returned false returns
+	 * true again once lines have been appended.
+	 * @return true if a record can be read right now
+	 */
+	@Override
+	public boolean hasNext() {
+		try {
+			while (this.records.isEmpty())
+				if (!this.read())
+					return false;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read the dataset", e);
+		}
+		return true;
+	}
+
+	@Override
+	public String[] next() {
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+		return this.records.poll();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.watcher.close();
+	}
+}
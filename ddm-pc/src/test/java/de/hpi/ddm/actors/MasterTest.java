@@ -0,0 +1,187 @@
+package de.hpi.ddm.actors;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.cluster.Cluster;
+import akka.testkit.TestProbe;
+import akka.testkit.javadsl.TestKit;
+import de.hpi.ddm.configuration.Configuration;
+import de.hpi.ddm.configuration.ConfigurationSingleton;
+import de.hpi.ddm.structures.HashEngine;
+import de.hpi.ddm.structures.Journal;
+import scala.concurrent.duration.FiniteDuration;
+
+public class MasterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ActorSystem system;
+
+	@Before
+	public void setUp() {
+		this.system = ActorSystem.create("ddm", ConfigFactory.parseString(
+				"akka.remote.artery.canonical.hostname = \"127.0.0.1\"\n" +
+				"akka.remote.artery.canonical.port = 0\n" +
+				"akka.loglevel = \"WARNING\"")
+			.withFallback(ConfigFactory.load("application")));
+	}
+
+	@After
+	public void tearDown() {
+		TestKit.shutdownActorSystem(this.system);
+		ConfigurationSingleton.set(new Configuration());
+	}
+
+	private static String[] line(int id, String password, String... hints) {
+		String[] line = new String[5 + hints.length];
+		line[0] = String.valueOf(id);
+		line[1] = "User" + id;
+		line[2] = "ABC";
+		line[3] = String.valueOf(password.length());
+		line[4] = HashEngine.toHex(HashEngine.get().hash(password));
+		for (int i = 0; i < hints.length; i++)
+			line[5 + i] = HashEngine.toHex(HashEngine.get().hash(hints[i]));
+		return line;
+	}
+
+	@Test
+	public void testOrderedOutputWritesResumedUsers() throws Exception {
+		Path output = this.folder.getRoot().toPath().resolve("results.csv");
+		Configuration c = new Configuration();
+		c.setOutputFile(output.toString());
+		c.setOutputOrdered(true);
+		c.setOutputFlushInterval(100);
+		ConfigurationSingleton.set(c);
+
+		// A previous run of the job has journaled the password of user 1, but not that of user 2
+		Path path = this.folder.getRoot().toPath().resolve("journal");
+		Journal journal = new Journal(path);
+		journal.password(HashEngine.get().hash("AB"), "AB");
+		journal.close();
+		Journal.Checkpoint checkpoint = Journal.replay(path);
+
+		TestProbe reader = new TestProbe(this.system);
+		TestProbe journaler = new TestProbe(this.system);
+		ActorRef collector = this.system.actorOf(Collector.props(), Collector.DEFAULT_NAME);
+		ActorRef master = this.system.actorOf(Master.props(reader.ref(), collector, journaler.ref(), checkpoint), Master.DEFAULT_NAME);
+
+		master.tell(new Master.StartMessage(), ActorRef.noSender());
+		reader.expectMsgClass(Reader.ReadMessage.class);
+		List<String[]> lines = Arrays.asList(line(1, "AB", "BC", "AC"), line(2, "CC", "AB", "BC"));
+		reader.reply(new Master.BatchMessage(lines));
+		reader.expectMsgClass(Reader.ReadMessage.class);
+		reader.reply(new Master.BatchMessage(Collections.emptyList()));
+
+		// User 2 still waits for its hints, which does not hold back the result of user 1 with its smaller ID
+		String written = "";
+		for (int i = 0; i < 100 && written.isEmpty(); i++) {
+			Thread.sleep(100);
+			written = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+		}
+		assertEquals("1;AB\n", written);
+	}
+
+	// Answer one message to a worker like a worker that only knows the given hints; cracked hints are published to the
+	// HintDictionary if the hint unit asks for it
+	private Object serve(TestProbe worker, Map<String, String> hints, Map<Integer, String> passwords) {
+		Object message = worker.receiveOne(FiniteDuration.create(100, TimeUnit.MILLISECONDS));
+		if (message instanceof Worker.HashMessage) {
+			Worker.HashMessage unit = (Worker.HashMessage) message;
+			Hashtable<String, String> cracked = new Hashtable<String, String>();
+			for (Map.Entry<String, String> hint : hints.entrySet())
+				if (!hint.getValue().contains(unit.getCharacter()))
+					cracked.put(hint.getKey(), hint.getValue());
+			if (unit.isReplicated()) {
+				HintDictionary.get(this.system).publish(cracked);
+				worker.reply(new Master.HintMessage(unit.getUnit(), new Hashtable<String, String>(), unit.getHintsVersion(), cracked.size()));
+			} else {
+				worker.reply(new Master.HintMessage(unit.getUnit(), cracked, unit.getHintsVersion(), 0));
+			}
+		} else if (message instanceof Worker.TaskMessage) {
+			Worker.TaskMessage task = (Worker.TaskMessage) message;
+			worker.reply(new Master.ResultMessage(task.getId(), passwords.get(task.getId()), task.getStart(), task.getEnd()));
+		}
+		return message;
+	}
+
+	private static String hint(String plaintext) {
+		return HashEngine.toHex(HashEngine.get().hash(plaintext));
+	}
+
+	@Test
+	public void testReplicatedHintsFinishWithRerunUnits() throws Exception {
+		Path output = this.folder.getRoot().toPath().resolve("results.csv");
+		Configuration c = new Configuration();
+		c.setOutputFile(output.toString());
+		c.setOutputOrdered(true);
+		c.setOutputFlushInterval(100);
+		c.setReplicatedHints(true);
+		c.setEarlyStart(true);
+		c.setPasswordSpaceThreshold(0);
+		ConfigurationSingleton.set(c);
+
+		// The replicated hints only reach the master's subscription once this node is a member of its cluster
+		Cluster cluster = Cluster.get(this.system);
+		cluster.join(cluster.selfAddress());
+
+		TestProbe reader = new TestProbe(this.system);
+		TestProbe journaler = new TestProbe(this.system);
+		TestProbe worker = new TestProbe(this.system);
+		ActorRef collector = this.system.actorOf(Collector.props(), Collector.DEFAULT_NAME);
+		ActorRef master = this.system.actorOf(Master.props(reader.ref(), collector, journaler.ref(), new Journal.Checkpoint()), Master.DEFAULT_NAME);
+
+		master.tell(new Master.StartMessage(), ActorRef.noSender());
+		reader.expectMsgClass(Reader.ReadMessage.class);
+		worker.send(master, new Master.RegistrationMessage(0));
+		worker.send(master, new Master.WorkRequestMessage(10));
+
+		// The first run of each hint unit only knows the hints of the first batch
+		Map<String, String> hints = new HashMap<String, String>();
+		hints.put(hint("BC"), "BC");
+		Map<Integer, String> passwords = new HashMap<Integer, String>();
+		passwords.put(1, "CC");
+		passwords.put(2, "BB");
+		reader.reply(new Master.BatchMessage(Collections.singletonList(line(1, "CC", "BC"))));
+		for (int units = 0, i = 0; units < 3 && i < 100; i++)
+			if (this.serve(worker, hints, passwords) instanceof Worker.HashMessage)
+				units++;
+
+		// The second batch adds a hint of a finished unit, which therefore runs again, and a hint that is no
+		// permutation, which is only given up once all units are done and all published hints are replicated
+		reader.expectMsgClass(Reader.ReadMessage.class);
+		hints.put(hint("CB"), "CB");
+		reader.reply(new Master.BatchMessage(Collections.singletonList(line(2, "BB", "CB", "ZZ"))));
+		reader.expectMsgClass(Reader.ReadMessage.class);
+		reader.reply(new Master.BatchMessage(Collections.emptyList()));
+
+		String written = "";
+		for (int i = 0; i < 200 && !written.equals("1;CC\n2;BB\n"); i++) {
+			this.serve(worker, hints, passwords);
+			if (Files.exists(output))
+				written = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+		}
+		assertEquals("1;CC\n2;BB\n", written);
+	}
+}
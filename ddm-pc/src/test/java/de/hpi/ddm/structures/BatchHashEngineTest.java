@@ -0,0 +1,56 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BatchHashEngineTest {
+
+	@Test
+	public void testAllSingleBlockLengthsMatchMessageDigest() throws Exception {
+		MessageDigest digest = MessageDigest.getInstance(HashEngine.ALGORITHM);
+		Random random = new Random(42);
+		
+		for (int length = 0; length <= BatchHashEngine.MAX_LENGTH; length++) {
+			// A count that is no multiple of the batch size also tests partially filled batches
+			byte[][] messages = new byte[BatchHashEngine.BATCH_SIZE + 3][length];
+			for (byte[] message : messages)
+				random.nextBytes(message);
+			long[] digests = new long[messages.length * BatchHashEngine.WORDS_PER_DIGEST];
+			BatchHashEngine.get().hashBatch(messages, digests);
+			
+			for (int i = 0; i < messages.length; i++)
+				assertArrayEquals("Length " + length, BatchHashEngine.toWords(digest.digest(messages[i])),
+						Arrays.copyOfRange(digests, i * BatchHashEngine.WORDS_PER_DIGEST, (i + 1) * BatchHashEngine.WORDS_PER_DIGEST));
+		}
+	}
+
+	@Test
+	public void testMixedLengthsMatchDataset() {
+		byte[][] messages = { HashEngine.toBytes("GGGFGFFFFG"), HashEngine.toBytes("HJKGDEFBIC"), HashEngine.toBytes("") };
+		long[] digests = new long[messages.length * BatchHashEngine.WORDS_PER_DIGEST];
+		BatchHashEngine.get().hashBatch(messages, digests);
+		
+		for (int i = 0; i < messages.length; i++)
+			assertArrayEquals(BatchHashEngine.toWords(HashEngine.get().hash(messages[i], messages[i].length)),
+					Arrays.copyOfRange(digests, i * BatchHashEngine.WORDS_PER_DIGEST, (i + 1) * BatchHashEngine.WORDS_PER_DIGEST));
+	}
+
+	@Test
+	public void testWordsRoundTrip() {
+		byte[] digest = HashEngine.get().hash("GGGFGFFFFG");
+		long[] words = new long[2 * BatchHashEngine.WORDS_PER_DIGEST];
+		System.arraycopy(BatchHashEngine.toWords(digest), 0, words, BatchHashEngine.WORDS_PER_DIGEST, BatchHashEngine.WORDS_PER_DIGEST);
+		
+		assertArrayEquals(digest, BatchHashEngine.toBytes(words, BatchHashEngine.WORDS_PER_DIGEST));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsMultiBlockMessages() {
+		BatchHashEngine.get().hashBatch(new byte[][] { new byte[BatchHashEngine.MAX_LENGTH + 1] }, new long[BatchHashEngine.WORDS_PER_DIGEST]);
+	}
+}
@@ -0,0 +1,25 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+	@Test
+	public void testDigestsHaveNoFalseNegativesAndFewFalsePositives() {
+		HashEngine engine = HashEngine.get();
+		BloomFilter filter = BloomFilter.forDigests(1000);
+		for (int i = 0; i < 1000; i++)
+			filter.addDigest(engine.hash("hint" + i));
+		
+		for (int i = 0; i < 1000; i++)
+			assertTrue(filter.mightContainDigest(BatchHashEngine.toWords(engine.hash("hint" + i)), 0));
+		
+		int falsePositives = 0;
+		for (int i = 0; i < 100000; i++)
+			if (filter.mightContainDigest(BatchHashEngine.toWords(engine.hash("miss" + i)), 0))
+				falsePositives++;
+		assertTrue("False positives: " + falsePositives, falsePositives < 1000);
+	}
+}
@@ -0,0 +1,58 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CombinationGeneratorTest {
+
+	private static final byte[] SYMBOLS = "ABC".getBytes(StandardCharsets.US_ASCII);
+
+	@Test
+	public void testEnumeratesInOdometerOrder() {
+		CombinationGenerator candidates = new CombinationGenerator(SYMBOLS, 4);
+		
+		Set<String> seen = new HashSet<>();
+		String previous = null;
+		do {
+			String candidate = new String(candidates.current(), StandardCharsets.US_ASCII);
+			assertTrue(seen.add(candidate));
+			assertTrue(previous == null || previous.compareTo(candidate) < 0);
+			previous = candidate;
+		} while (candidates.next());
+		
+		assertEquals(81, seen.size());
+		assertEquals(80, candidates.index());
+		assertEquals("CCCC", previous);
+	}
+
+	@Test
+	public void testSeekMatchesEnumeration() {
+		CombinationGenerator enumerated = new CombinationGenerator(SYMBOLS, 5);
+		CombinationGenerator sought = new CombinationGenerator(SYMBOLS, 5);
+		
+		do {
+			sought.seek(enumerated.index());
+			assertEquals(new String(enumerated.current(), StandardCharsets.US_ASCII), new String(sought.current(), StandardCharsets.US_ASCII));
+		} while (enumerated.next());
+	}
+
+	@Test
+	public void testEmptyAlphabet() {
+		CombinationGenerator candidates = new CombinationGenerator(new byte[0], 3);
+		
+		assertEquals(0, candidates.size());
+		assertFalse(candidates.next());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSeekOutOfRange() {
+		new CombinationGenerator(SYMBOLS, 2).seek(9);
+	}
+}
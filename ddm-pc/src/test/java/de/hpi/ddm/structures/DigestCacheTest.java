@@ -0,0 +1,84 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DigestCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testBuildAndLookup() throws IOException {
+		Path directory = this.folder.getRoot().toPath().resolve("caches");
+		assertNull(DigestCache.open(directory, "ABCDEF"));
+
+		DigestCache cache = DigestCache.build(directory, "ABCDEF", Runnable::run);
+		assertEquals("BCDEF", cache.lookup(HashEngine.get().hash("BCDEF")));
+		assertEquals("FEDCA", cache.lookup(HashEngine.get().hash("FEDCA")));
+		assertEquals("DAFBE", cache.lookup(HashEngine.get().hash("DAFBE")));
+		assertNull(cache.lookup(HashEngine.get().hash("ABCDEF")));
+		assertNull(cache.lookup(HashEngine.get().hash("AABCD")));
+
+		cache = DigestCache.open(directory, "ABCDEF");
+		assertNotNull(cache);
+		assertEquals("CABFE", cache.lookup(HashEngine.get().hash("CABFE")));
+
+		// Every alphabet has a file of its own
+		assertNull(DigestCache.open(directory, "ABCDEG"));
+	}
+
+	@Test
+	public void testSlicesFollowTheGrowingHints() throws IOException {
+		DigestCache cache = DigestCache.build(this.folder.getRoot().toPath(), "ABCDE", Runnable::run);
+		DigestIndex hints = new DigestIndex();
+		hints.add(HashEngine.get().hash("BCDE"));
+		hints.add(HashEngine.get().hash("BDCE"));
+		hints.add(HashEngine.get().hash("CBDE"));
+		hints.add(HashEngine.get().hash("AAAA"));
+
+		// Each slice holds the hints that lack its character and start with its prefix
+		assertEquals(2, cache.slice(hints, 1, "A", "B").size());
+		assertEquals("CBDE", cache.slice(hints, 1, "A", "C").get(HashEngine.toHex(HashEngine.get().hash("CBDE"))));
+		assertTrue(cache.slice(hints, 1, "B", "C").isEmpty());
+
+		// Digests of a later version are sorted into the slices as well
+		hints.add(HashEngine.get().hash("BEDC"));
+		assertEquals(2, cache.slice(hints, 1, "A", "B").size());
+		assertEquals(3, cache.slice(hints, 2, "A", "B").size());
+		
+		// Units with another prefix length sort all hints again
+		assertEquals(4, cache.slice(hints, 2, "A", "").size());
+	}
+
+	@Test
+	public void testOpenRejectsCorruptFiles() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		DigestCache.build(directory, "ABCDE", Runnable::run);
+		Path path = DigestCache.path(directory, "ABCDE");
+		byte[] bytes = Files.readAllBytes(path);
+
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(path, bytes);
+		assertNull(DigestCache.open(directory, "ABCDE"));
+
+		bytes[bytes.length - 1] ^= 1;
+		bytes[20] ^= 1;
+		Files.write(path, bytes);
+		assertNull(DigestCache.open(directory, "ABCDE"));
+
+		bytes[20] ^= 1;
+		Files.write(path, bytes);
+		assertNotNull(DigestCache.open(directory, "ABCDE"));
+	}
+}
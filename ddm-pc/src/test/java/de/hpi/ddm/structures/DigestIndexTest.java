@@ -0,0 +1,78 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DigestIndexTest {
+
+	@Test
+	public void testAddAndResolveBeyondInitialCapacity() {
+		HashEngine engine = HashEngine.get();
+		DigestIndex index = new DigestIndex(4);
+		
+		for (int i = 0; i < 1000; i++)
+			assertTrue(index.add(engine.hash("hint" + i)));
+		assertFalse(index.add(engine.hash("hint0")));
+		
+		for (int i = 0; i < 1000; i += 2)
+			assertFalse(index.put(engine.hash("hint" + i), "plain" + i));
+		
+		assertEquals(1000, index.size());
+		assertEquals(500, index.resolved());
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(index.contains(engine.hash("hint" + i)));
+			assertEquals(i % 2 == 0 ? "plain" + i : null, index.get(engine.hash("hint" + i)));
+		}
+		assertFalse(index.contains(engine.hash("hint1000")));
+		assertNull(index.get(engine.hash("hint1000")));
+	}
+
+	@Test
+	public void testContainsAtOffset() {
+		byte[] digest = HashEngine.get().hash("ABCDEFGHIJ");
+		byte[] buffer = new byte[8 + HashEngine.DIGEST_LENGTH];
+		System.arraycopy(digest, 0, buffer, 8, digest.length);
+		
+		DigestIndex index = new DigestIndex();
+		index.add(digest);
+		
+		assertTrue(index.contains(buffer, 8));
+		assertFalse(index.contains(buffer, 0));
+	}
+
+	@Test
+	public void testZeroDigest() {
+		byte[] zero = new byte[HashEngine.DIGEST_LENGTH];
+		DigestIndex index = new DigestIndex();
+		
+		assertFalse(index.contains(zero));
+		assertTrue(index.put(zero, "zero"));
+		assertTrue(index.contains(zero));
+		assertEquals("zero", index.get(zero));
+		assertEquals(1, index.size());
+		assertEquals(1, index.resolved());
+	}
+
+	@Test
+	public void testForEachCopiesDigests() {
+		HashEngine engine = HashEngine.get();
+		DigestIndex index = new DigestIndex();
+		index.put(engine.hash("a"), "a");
+		index.add(engine.hash("b"));
+		
+		Map<String, String> entries = new HashMap<>();
+		index.forEach((digest, plaintext) -> entries.put(HashEngine.toHex(digest), plaintext));
+		
+		assertEquals(2, entries.size());
+		assertEquals("a", entries.get(HashEngine.toHex(engine.hash("a"))));
+		assertTrue(entries.containsKey(HashEngine.toHex(engine.hash("b"))));
+		assertNull(entries.get(HashEngine.toHex(engine.hash("b"))));
+	}
+}
@@ -0,0 +1,43 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class DigestLogTest {
+
+	@Test
+	public void testAppendBeyondInitialCapacity() {
+		HashEngine engine = HashEngine.get();
+		DigestLog log = new DigestLog(1);
+
+		for (int i = 0; i < 100; i++)
+			log.append(engine.hash("hint" + i), i % 3 == 0 ? "plain" + i : null);
+
+		assertEquals(100, log.size());
+		for (int i = 0; i < 100; i++) {
+			assertArrayEquals(engine.hash("hint" + i), log.digest(i));
+			assertEquals(i % 3 == 0 ? "plain" + i : null, log.plaintext(i));
+		}
+	}
+
+	@Test
+	public void testDigestIsCopied() {
+		byte[] digest = HashEngine.get().hash("ABCDEFGHIJ");
+		DigestLog log = new DigestLog();
+		log.append(digest, null);
+
+		log.digest(0)[0]++;
+		assertArrayEquals(digest, log.digest(0));
+		assertNull(log.plaintext(0));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testPositionBeyondSize() {
+		DigestLog log = new DigestLog();
+		log.append(HashEngine.get().hash("ABCDEFGHIJ"), null);
+		log.digest(1);
+	}
+}
@@ -0,0 +1,50 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HashEngineTest {
+
+	// First record of data/passwords.csv and its solution
+	private static final String PASSWORD = "GGGFGFFFFG";
+	private static final String PASSWORD_HASH = "c4712866799881ac48ca55bf78a9540b1883ae033b52109169eb784969be09d5";
+	private static final String HINT = "HJKGDEFBIC";
+	private static final String HINT_HASH = "1582824a01c4b842e207a51e3cfc47212885e58eb147e33ea29ba212e611904d";
+
+	@Test
+	public void testHexRoundTrip() {
+		byte[] digest = HashEngine.fromHex(PASSWORD_HASH);
+		
+		assertEquals(HashEngine.DIGEST_LENGTH, digest.length);
+		assertEquals(PASSWORD_HASH, HashEngine.toHex(digest));
+	}
+
+	@Test
+	public void testHashMatchesDataset() {
+		HashEngine engine = HashEngine.get();
+		
+		assertArrayEquals(HashEngine.fromHex(PASSWORD_HASH), engine.hash(PASSWORD));
+		assertArrayEquals(HashEngine.fromHex(HINT_HASH), engine.hash(HINT));
+	}
+
+	@Test
+	public void testMatchesReusedBuffer() {
+		HashEngine engine = HashEngine.get();
+		byte[] buffer = new byte[16];
+		byte[] password = HashEngine.toBytes(PASSWORD);
+		System.arraycopy(password, 0, buffer, 0, password.length);
+		buffer[password.length] = 'X'; // Trailing garbage must not be hashed
+		
+		assertTrue(engine.matches(buffer, password.length, HashEngine.fromHex(PASSWORD_HASH)));
+		assertFalse(engine.matches(buffer, password.length + 1, HashEngine.fromHex(PASSWORD_HASH)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsMalformedHex() {
+		HashEngine.fromHex("c47128");
+	}
+}
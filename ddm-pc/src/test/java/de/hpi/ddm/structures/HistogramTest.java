@@ -0,0 +1,59 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	@Test
+	public void testBucketsCoverAllValues() {
+		assertEquals(0, Histogram.bucket(0));
+		assertEquals(Histogram.NUM_BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, Histogram.upperBound(Histogram.NUM_BUCKETS - 1));
+
+		// Every bucket starts right after the previous one and is at most 12.5% wide
+		long lower = 0;
+		for (int bucket = 0; bucket < Histogram.NUM_BUCKETS; bucket++) {
+			long upper = Histogram.upperBound(bucket);
+			assertEquals(bucket, Histogram.bucket(lower));
+			assertEquals(bucket, Histogram.bucket(upper));
+			assertTrue(upper - lower <= Math.max(1, lower / 8));
+			lower = upper + 1;
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.percentile(50));
+
+		for (long value = 1; value <= 1000; value++)
+			histogram.record(value);
+		assertEquals(1000, histogram.count());
+		assertEquals(1, histogram.percentile(0));
+		assertTrue(Math.abs(histogram.percentile(50) - 500) <= 500 / 8);
+		assertTrue(Math.abs(histogram.percentile(99) - 990) <= 990 / 8);
+		assertTrue(histogram.percentile(100) >= 1000);
+	}
+
+	@Test
+	public void testDrainAndAdd() {
+		Histogram histogram = new Histogram();
+		histogram.record(3);
+		histogram.record(3);
+		histogram.record(70000);
+
+		long[] counts = histogram.drain();
+		assertEquals(0, histogram.count());
+		assertEquals(2, counts[Histogram.bucket(3)]);
+
+		Histogram merged = new Histogram();
+		merged.add(counts);
+		merged.add(counts);
+		assertEquals(6, merged.count());
+		assertEquals(3, merged.percentile(50));
+		assertEquals(Histogram.upperBound(Histogram.bucket(70000)), merged.percentile(100));
+	}
+}
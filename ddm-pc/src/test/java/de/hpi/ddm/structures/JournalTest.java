@@ -0,0 +1,106 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static byte[] digest(String plaintext) {
+		return HashEngine.get().hash(plaintext);
+	}
+
+	@Test
+	public void testReplayFlushedRecords() throws IOException {
+		Path path = this.folder.getRoot().toPath().resolve("journal");
+		assertEquals(0, Journal.replay(path).getHints().size());
+
+		Journal journal = new Journal(path);
+		journal.hint(digest("BCDEFGHIJK"), "BCDEFGHIJK");
+		journal.password(digest("AABBA"), "AABBA");
+		assertEquals(2, journal.pending());
+		journal.flush();
+		journal.hint(digest("ACDEFGHIJK"), "ACDEFGHIJK");
+		journal.close();
+
+		Journal.Checkpoint checkpoint = Journal.replay(path);
+		assertEquals(2, checkpoint.getHints().size());
+		assertEquals("BCDEFGHIJK", checkpoint.getHints().get(digest("BCDEFGHIJK")));
+		assertEquals("ACDEFGHIJK", checkpoint.getHints().get(digest("ACDEFGHIJK")));
+		assertEquals("AABBA", checkpoint.getPasswords().get(digest("AABBA")));
+		assertNull(checkpoint.getPasswords().get(digest("BCDEFGHIJK")));
+	}
+
+	@Test
+	public void testReplayCutsOffTornFrame() throws IOException {
+		Path path = this.folder.getRoot().toPath().resolve("journal");
+		Journal journal = new Journal(path);
+		journal.hint(digest("BCDEFGHIJK"), "BCDEFGHIJK");
+		journal.close();
+		long intact = Files.size(path);
+
+		// A frame whose header promises more bytes than were written before the crash
+		Files.write(path, new byte[] { 0, 0, 0, 100, 1, 2, 3, 4, 1, 2 }, StandardOpenOption.APPEND);
+		assertEquals(1, Journal.replay(path).getHints().size());
+		assertEquals(intact, Files.size(path));
+
+		// A frame whose payload does not match its checksum
+		journal = new Journal(path);
+		journal.hint(digest("ACDEFGHIJK"), "ACDEFGHIJK");
+		journal.close();
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(path, bytes);
+		assertEquals(1, Journal.replay(path).getHints().size());
+		assertEquals(intact, Files.size(path));
+
+		// New frames are appended to the last intact one
+		journal = new Journal(path);
+		journal.password(digest("AABBA"), "AABBA");
+		journal.close();
+		Journal.Checkpoint checkpoint = Journal.replay(path);
+		assertEquals(1, checkpoint.getHints().size());
+		assertEquals("AABBA", checkpoint.getPasswords().get(digest("AABBA")));
+	}
+
+	@Test
+	public void testCompactDropsRepeatedRecords() throws IOException {
+		Path path = this.folder.getRoot().toPath().resolve("journal");
+		Journal journal = new Journal(path);
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 5000; j++)
+				journal.hint(digest("hint" + j), "hint" + j);
+			journal.password(digest("AABBA"), "AABBA");
+			journal.flush();
+		}
+		long size = Files.size(path);
+		assertEquals(3, journal.frames());
+
+		Journal.Checkpoint compacted = journal.compact();
+		assertEquals(5000, compacted.getHints().size());
+		assertTrue(Files.size(path) < size / 2);
+
+		// Compaction starts the count of written frames again, which the journaler compacts by
+		assertEquals(0, journal.frames());
+		journal.password(digest("BBAAB"), "BBAAB");
+		journal.flush();
+		assertEquals(1, journal.frames());
+		journal.close();
+		Journal.Checkpoint checkpoint = Journal.replay(path);
+		assertEquals(5000, checkpoint.getHints().size());
+		assertEquals("hint4999", checkpoint.getHints().get(digest("hint4999")));
+		assertEquals(2, checkpoint.getPasswords().size());
+	}
+}
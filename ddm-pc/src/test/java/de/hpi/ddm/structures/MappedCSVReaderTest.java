@@ -0,0 +1,88 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.opencsv.CSVReader;
+
+import de.hpi.ddm.configuration.DatasetDescriptor;
+
+public class MappedCSVReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<String[]> readAll(MappedCSVReader reader) throws IOException {
+		List<String[]> records = new ArrayList<>();
+		try {
+			while (reader.hasNext())
+				records.add(reader.next());
+		} finally {
+			reader.close();
+		}
+		return records;
+	}
+
+	@Test
+	public void testSmallChunksMatchCSVReader() throws IOException {
+		DatasetDescriptor descriptor = new DatasetDescriptor();
+		List<String[]> expected = new ArrayList<>();
+		try (CSVReader reader = descriptor.createCSVReader()) {
+			reader.forEach(expected::add);
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			// Chunks of 1000 bytes hold only a few lines each, so records of many chunks must be merged in order
+			Path path = new File(descriptor.getDatasetPathNameEnding()).toPath();
+			List<String[]> records = readAll(new MappedCSVReader(path, descriptor, executor, 3, 1000));
+			
+			assertEquals(expected.size(), records.size());
+			for (int i = 0; i < expected.size(); i++)
+				assertArrayEquals(expected.get(i), records.get(i));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testQuotesEscapesAndDifferingLines() throws IOException {
+		File file = this.folder.newFile("quoted.csv");
+		Files.write(file.toPath(), ("ID;Name;Hint\r\n"
+				+ "1;\"Doe; John\";A\r\n"
+				+ "2;  \"Say \"\"hi\"\"\";\\\"B\r\n"
+				+ "3;too;many;values\n"
+				+ "\n"
+				+ "4;;C").getBytes(StandardCharsets.UTF_8));
+		
+		DatasetDescriptor descriptor = new DatasetDescriptor();
+		List<String[]> records = readAll(new MappedCSVReader(file.toPath(), descriptor, Runnable::run, 1, 7));
+		
+		assertEquals(3, records.size());
+		assertArrayEquals(new String[] { "1", "Doe; John", "A" }, records.get(0));
+		assertArrayEquals(new String[] { "2", "Say \"hi\"", "\"B" }, records.get(1));
+		assertArrayEquals(new String[] { "4", null, "C" }, records.get(2));
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException {
+		File file = this.folder.newFile("empty.csv");
+		
+		assertFalse(new MappedCSVReader(file.toPath(), new DatasetDescriptor(), Runnable::run, 1, 1000).hasNext());
+	}
+}
@@ -0,0 +1,96 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Hashtable;
+
+import org.junit.Test;
+
+import com.twitter.chill.KryoPool;
+
+import de.hpi.ddm.actors.Master;
+import de.hpi.ddm.actors.Worker;
+
+public class MessageKryoInstantiatorTest {
+
+	private static final KryoPool kryo = KryoPoolSingleton.get();
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T message) {
+		return (T) kryo.fromBytes(kryo.toBytesWithClass(message));
+	}
+
+	@Test
+	public void testTaskMessage() {
+		Worker.TaskMessage message = new Worker.TaskMessage(42, HashEngine.get().hash("ABCDEFGHIJ"), 10, HashEngine.toBytes("ABCDE"), 10000000, 20000000);
+		Worker.TaskMessage copy = roundTrip(message);
+
+		assertEquals(42, copy.getId());
+		assertArrayEquals(message.getPasswordHash(), copy.getPasswordHash());
+		assertEquals(10, copy.getPasswordLength());
+		assertArrayEquals(message.getLetters(), copy.getLetters());
+		assertEquals(10000000, copy.getStart());
+		assertEquals(20000000, copy.getEnd());
+
+		// The class id, the digest and a few bytes for the numbers and the letters
+		assertTrue(kryo.toBytesWithClass(message).length <= 1 + 32 + 20);
+	}
+
+	@Test
+	public void testHintsHashesMessage() {
+		byte[] digests = new byte[3 * HashEngine.DIGEST_LENGTH];
+		for (int i = 0; i < 3; i++)
+			System.arraycopy(HashEngine.get().hash("hint" + i), 0, digests, i * HashEngine.DIGEST_LENGTH, HashEngine.DIGEST_LENGTH);
+		Worker.HintsHashesMessage message = new Worker.HintsHashesMessage(100, 104, digests, Arrays.asList(null, "BCDEFGHIJK", null));
+		Worker.HintsHashesMessage copy = roundTrip(message);
+
+		assertEquals(100, copy.getFrom());
+		assertEquals(104, copy.getTo());
+		assertArrayEquals(digests, copy.getDigests());
+		assertEquals(message.getPlaintexts(), copy.getPlaintexts());
+	}
+
+	@Test
+	public void testHintMessage() {
+		Hashtable<String, String> crackedHints = new Hashtable<>();
+		crackedHints.put(HashEngine.toHex(HashEngine.get().hash("BCDEFGHIJK")), "BCDEFGHIJK");
+		crackedHints.put(HashEngine.toHex(HashEngine.get().hash("ACDEFGHIJK")), "ACDEFGHIJK");
+		Master.HintMessage copy = roundTrip(new Master.HintMessage(130, crackedHints, 7, 3));
+
+		assertEquals(130, copy.getUnit());
+		assertEquals(crackedHints, copy.getCrackedHints());
+		assertEquals(7, copy.getHintsVersion());
+		assertEquals(3, copy.getNumReplicated());
+	}
+
+	@Test
+	public void testMetricsMessage() {
+		Histogram serviceTimes = new Histogram();
+		serviceTimes.record(1500);
+		serviceTimes.record(250000);
+		Master.MetricsMessage message = new Master.MetricsMessage(123456789, 120000000, 600000, 40, serviceTimes.drain(), new Histogram().drain());
+		Master.MetricsMessage copy = roundTrip(message);
+
+		assertEquals(123456789, copy.getHashes());
+		assertEquals(120000000, copy.getFilterProbes());
+		assertEquals(600000, copy.getFilterPasses());
+		assertEquals(40, copy.getFilterHits());
+		assertArrayEquals(message.getServiceTimes(), copy.getServiceTimes());
+		assertArrayEquals(message.getQueueWaits(), copy.getQueueWaits());
+		assertTrue(kryo.toBytesWithClass(message).length <= 1 + 4 + 4 + 3 + 1 + 1 + 2 * 3 + 1);
+	}
+
+	@Test
+	public void testSmallMessages() {
+		assertEquals(new Master.ResultMessage(3, null, 0, 5), roundTrip(new Master.ResultMessage(3, null, 0, 5)));
+		assertEquals(new Master.ResultMessage(3, "ABBA", 0, 5), roundTrip(new Master.ResultMessage(3, "ABBA", 0, 5)));
+		assertEquals(new Worker.HashMessage(5, "A", "BC", 12, true), roundTrip(new Worker.HashMessage(5, "A", "BC", 12, true)));
+		assertEquals(new Worker.PasswordCharsMessage("ABC"), roundTrip(new Worker.PasswordCharsMessage("ABC")));
+		assertEquals(new Worker.CancelMessage(9), roundTrip(new Worker.CancelMessage(9)));
+		assertEquals(new Master.WorkRequestMessage(2), roundTrip(new Master.WorkRequestMessage(2)));
+		assertEquals(new Master.RegistrationMessage(40), roundTrip(new Master.RegistrationMessage(40)));
+	}
+}
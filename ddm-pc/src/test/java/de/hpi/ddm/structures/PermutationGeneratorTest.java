@@ -0,0 +1,49 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PermutationGeneratorTest {
+
+	@Test
+	public void testEnumeratesEachPermutationOnce() {
+		byte[] symbols = "ABCDEF".getBytes(StandardCharsets.US_ASCII);
+		PermutationGenerator permutations = new PermutationGenerator(symbols);
+		
+		Set<String> seen = new HashSet<>();
+		do {
+			assertTrue(seen.add(new String(permutations.current(), StandardCharsets.US_ASCII)));
+		} while (permutations.next());
+		
+		assertEquals(720, seen.size());
+	}
+
+	@Test
+	public void testKeepsPrefixFixed() {
+		byte[] symbols = "ABCDE".getBytes(StandardCharsets.US_ASCII);
+		PermutationGenerator permutations = new PermutationGenerator(symbols, 2);
+		
+		Set<String> seen = new HashSet<>();
+		do {
+			String permutation = new String(permutations.current(), StandardCharsets.US_ASCII);
+			assertTrue(permutation.startsWith("AB"));
+			assertTrue(seen.add(permutation));
+		} while (permutations.next());
+		
+		assertEquals(6, seen.size());
+	}
+
+	@Test
+	public void testSingleSymbol() {
+		PermutationGenerator permutations = new PermutationGenerator(new byte[] { 'A' });
+		
+		assertFalse(permutations.next());
+	}
+}
@@ -0,0 +1,98 @@
+package de.hpi.ddm.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.hpi.ddm.configuration.DatasetDescriptor;
+
+public class TailingCSVReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<String[]> readAvailable(TailingCSVReader reader) {
+		List<String[]> records = new ArrayList<>();
+		while (reader.hasNext())
+			records.add(reader.next());
+		return records;
+	}
+
+	private static void append(Path file, String lines) throws IOException {
+		Files.write(file, lines.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	@Test
+	public void testFollowsAppendedLines() throws IOException {
+		Path file = this.folder.getRoot().toPath().resolve("passwords.csv");
+		try (TailingCSVReader reader = new TailingCSVReader(file, new DatasetDescriptor(), 7)) {
+			// The file does not exist yet, and a line without its line break is still being written
+			assertFalse(reader.hasNext());
+			append(file, "ID;Name;Hint\r\n1;\"Doe; John\";A\n2;Jane;");
+			List<String[]> records = readAvailable(reader);
+			assertEquals(1, records.size());
+			assertArrayEquals(new String[] { "1", "Doe; John", "A" }, records.get(0));
+
+			// The header is only skipped at the start of the file, and lines of a different length are skipped
+			append(file, "B\n3;too;many;values\n4;;C\n");
+			records = readAvailable(reader);
+			assertEquals(2, records.size());
+			assertArrayEquals(new String[] { "2", "Jane", "B" }, records.get(0));
+			assertArrayEquals(new String[] { "4", null, "C" }, records.get(1));
+			assertFalse(reader.hasNext());
+		}
+	}
+
+	@Test
+	public void testFollowsSegmentsOfDirectory() throws IOException, InterruptedException {
+		File directory = this.folder.newFolder("passwords");
+		append(directory.toPath().resolve("b.csv"), "ID;Name\n2;Jane\n");
+		append(directory.toPath().resolve("notes.txt"), "ID;Name\n9;Nobody\n");
+
+		try (TailingCSVReader reader = new TailingCSVReader(directory.toPath(), new DatasetDescriptor(), TailingCSVReader.DEFAULT_CHUNK_SIZE)) {
+			assertEquals(1, readAvailable(reader).size());
+
+			// Segments are read in the order of their names, each from where it was left
+			append(directory.toPath().resolve("a.csv"), "ID;Name\n1;John\n");
+			append(directory.toPath().resolve("b.csv"), "3;Jim\n");
+			for (int i = 0; i < 100 && !reader.changed(); i++)
+				Thread.sleep(100);
+
+			List<String[]> records = readAvailable(reader);
+			assertEquals(2, records.size());
+			assertArrayEquals(new String[] { "1", "John" }, records.get(0));
+			assertArrayEquals(new String[] { "3", "Jim" }, records.get(1));
+		}
+	}
+
+	@Test
+	public void testReportsChangesOfTheFollowedFile() throws IOException, InterruptedException {
+		Path file = this.folder.getRoot().toPath().resolve("passwords.csv");
+		try (TailingCSVReader reader = new TailingCSVReader(file, new DatasetDescriptor(), TailingCSVReader.DEFAULT_CHUNK_SIZE)) {
+			append(this.folder.getRoot().toPath().resolve("other.csv"), "ID;Name\n");
+			append(file, "ID;Name\n1;John\n");
+
+			boolean changed = false;
+			for (int i = 0; i < 100 && !changed; i++) {
+				changed = reader.changed();
+				Thread.sleep(100);
+			}
+			assertTrue(changed);
+			assertEquals(1, readAvailable(reader).size());
+		}
+	}
+}